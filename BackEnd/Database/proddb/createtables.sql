@@ -125,3 +125,8 @@ CREATE TABLE Applications (
 );
 
 CREATE INDEX idxOnEmployerJobs ON JobPostings(EmployerId);
+CREATE INDEX idxActiveJobsByPostDate ON JobPostings(IsActive, PostDate, JobId);
+CREATE INDEX idxApplicationsByJobStatus ON Applications(JobId, Status, ApplyDate, EmployeeId);
+CREATE INDEX idxDislikeByJob ON Dislike(JobId);
+CREATE INDEX idxShortlistByJob ON Shortlist(JobId);
+CREATE INDEX idxJobsByCity ON JobPostings(CityId);
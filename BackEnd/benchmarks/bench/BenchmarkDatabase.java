@@ -0,0 +1,215 @@
+package bench;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Seeds a proddb-schema SQLite file with deterministic synthetic data for the benchmarks.
+// The file is reused across forks and runs as long as the requested size does not change.
+public class BenchmarkDatabase {
+    static final int COUNTRIES = 10;
+    static final int CITIES = 200;
+    static final int INDUSTRIES = 30;
+    static final int COMPANIES = 500;
+    static final int EMPLOYERS = 1000;
+    static final int EMPLOYEES = 2000;
+    static final String PASSWORD = "password";
+
+    private static final String SCHEMA = "Database/proddb/createtables.sql";
+    private static final String[] WORDS = ("java python engineer manager data analyst sales marketing " +
+        "design cloud security nurse teacher product research").split(" ");
+    private static final String[] WORK_TYPES = {"Full-time", "Part-time", "Contract", "Intern"};
+
+    // Path of a database with the given number of jobs, created on first use
+    public static synchronized String ensure(int jobs) throws Exception {
+        File file = new File("target/bench/foundry-bench-" + jobs + ".db");
+        if (!file.exists()) {
+            file.getParentFile().mkdirs();
+            File partial = new File(file.getPath() + ".tmp");
+            partial.delete();
+            seed(partial.getPath(), jobs);
+            if (!partial.renameTo(file)) {
+                throw new IOException("Could not move seeded database to " + file);
+            }
+        }
+        return file.getPath();
+    }
+
+    // First phone number of an employee account; employees use phone numbers after it
+    static String employeePhone(int employeeIndex) {
+        return phone(EMPLOYERS + 1 + employeeIndex);
+    }
+
+    static long employeeId(int employeeIndex) {
+        return EMPLOYERS + 1 + employeeIndex;
+    }
+
+    private static String phone(int userId) {
+        return String.format("555%07d", userId);
+    }
+
+    private static void seed(String path, int jobs) throws Exception {
+        Random random = new Random(1);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + path)) {
+            connection.setAutoCommit(false);
+            createSchema(connection);
+
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO Countries VALUES (?, ?)")) {
+                for (int i = 1; i <= COUNTRIES; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "Country" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO Cities VALUES (?, ?, ?)")) {
+                for (int i = 1; i <= CITIES; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "City" + i);
+                    ps.setInt(3, i % COUNTRIES + 1);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO Industry VALUES (?, ?)")) {
+                for (int i = 1; i <= INDUSTRIES; i++) {
+                    ps.setInt(1, i);
+                    ps.setString(2, "Industry" + i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement company = connection.prepareStatement("INSERT INTO Companies VALUES (?, ?, ?, ?)");
+                 PreparedStatement focus = connection.prepareStatement("INSERT OR IGNORE INTO FocusOn VALUES (?, ?)")) {
+                for (int i = 1; i <= COMPANIES; i++) {
+                    company.setInt(1, i);
+                    company.setString(2, "Company" + i);
+                    company.setInt(3, 100);
+                    company.setInt(4, 1 + random.nextInt(CITIES));
+                    company.addBatch();
+                    focus.setInt(1, i);
+                    focus.setInt(2, 1 + random.nextInt(INDUSTRIES));
+                    focus.addBatch();
+                }
+                company.executeBatch();
+                focus.executeBatch();
+            }
+            seedUsers(connection, random);
+            seedJobs(connection, random, jobs);
+            seedEngagement(connection, random, jobs, "INSERT INTO Applications (EmployeeId, JobId, ApplyDate) VALUES (?, ?, '2024-01-01')", jobs * 3 / 2);
+            seedEngagement(connection, random, jobs, "INSERT INTO Shortlist (EmployeeId, JobId) VALUES (?, ?)", jobs);
+            seedEngagement(connection, random, jobs, "INSERT INTO Dislike (EmployeeId, JobId) VALUES (?, ?)", jobs);
+            connection.commit();
+        }
+    }
+
+    private static void createSchema(Connection connection) throws IOException, SQLException {
+        String script = new String(Files.readAllBytes(Paths.get(SCHEMA)), StandardCharsets.UTF_8);
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : withoutComments.toString().split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        }
+    }
+
+    private static void seedUsers(Connection connection, Random random) throws SQLException {
+        // One hash for every account; login still pays the full BCrypt verification
+        String hash = new BCryptPasswordEncoder().encode(PASSWORD);
+        String userSql = "INSERT INTO Users (UserId, Phone, PasswordHash, UserName, CityId, Role, Email) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement users = connection.prepareStatement(userSql);
+             PreparedStatement employers = connection.prepareStatement("INSERT INTO Employers VALUES (?, ?)");
+             PreparedStatement employees = connection.prepareStatement("INSERT INTO Employees VALUES (?, ?)")) {
+            for (int id = 1; id <= EMPLOYERS + EMPLOYEES; id++) {
+                boolean employer = id <= EMPLOYERS;
+                users.setInt(1, id);
+                users.setString(2, phone(id));
+                users.setString(3, hash);
+                users.setString(4, "User" + id);
+                users.setInt(5, 1 + random.nextInt(CITIES));
+                users.setString(6, employer ? "employer" : "employee");
+                users.setString(7, "user" + id + "@example.com");
+                users.addBatch();
+                if (employer) {
+                    employers.setInt(1, id);
+                    employers.setInt(2, 1 + random.nextInt(COMPANIES));
+                    employers.addBatch();
+                } else {
+                    employees.setInt(1, id);
+                    employees.setString(2, "resumes/" + id + ".pdf");
+                    employees.addBatch();
+                }
+            }
+            users.executeBatch();
+            employers.executeBatch();
+            employees.executeBatch();
+        }
+    }
+
+    private static void seedJobs(Connection connection, Random random, int jobs) throws SQLException {
+        String sql = "INSERT INTO JobPostings VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int id = 1; id <= jobs; id++) {
+                int minSalary = 30 + random.nextInt(90);
+                StringBuilder description = new StringBuilder();
+                for (int w = 0; w < 40; w++) {
+                    description.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+                }
+                ps.setInt(1, id);
+                ps.setInt(2, 1 + random.nextInt(EMPLOYERS));
+                ps.setString(3, capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + capitalize(WORDS[random.nextInt(WORDS.length)]));
+                ps.setString(4, description.toString());
+                ps.setInt(5, minSalary);
+                ps.setInt(6, minSalary + random.nextInt(80));
+                ps.setString(7, WORK_TYPES[random.nextInt(WORK_TYPES.length)]);
+                ps.setInt(8, 1 + random.nextInt(CITIES));
+                ps.setInt(9, random.nextInt(10) == 0 ? 0 : 1);
+                ps.setString(10, String.format("2023-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                ps.addBatch();
+                if (id % 5000 == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void seedEngagement(Connection connection, Random random, int jobs, String sql, int rows) throws SQLException {
+        Set<Long> seen = new HashSet<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                long employeeId = employeeId(random.nextInt(EMPLOYEES));
+                long jobId = 1 + random.nextInt(jobs);
+                if (seen.add(employeeId * jobs + jobId)) {
+                    ps.setLong(1, employeeId);
+                    ps.setLong(2, jobId);
+                    ps.addBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
@@ -0,0 +1,116 @@
+package bench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import components.recommendations.CoOccurrenceRecommender;
+import data.JobPosting;
+import data.UserProfile;
+import service.JobService;
+import service.UserService;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+
+// Checks that an incremental co-occurrence refresh notices a deleted row whose rowid was reused by the next insert:
+// a new employee shortlists A, then B (the newest row), unshortlists B and shortlists C, which gets B's rowid.
+// The neighbours of A must then be C alone. Exits with 1 when they are not.
+public class CoOccurrenceRefreshCheck {
+    public static void main(String[] args) throws Exception {
+        // Devtools would otherwise restart this main method in its own class loader; an argument is too late for that
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        File database = new File("target/plans/foundry-cf-refresh.db");
+        database.getParentFile().mkdirs();
+        Files.copy(new File(BenchmarkDatabase.ensure(Integer.getInteger("bench.jobs", 20000))).toPath(), database.toPath(),
+            StandardCopyOption.REPLACE_EXISTING);
+
+        String[] arguments = {
+            "--foundry.datasource.path=" + database.getPath(),
+            "--spring.devtools.livereload.enabled=false",
+            "--spring.main.banner-mode=off",
+            "--foundry.query-metrics.slow-threshold-ms=" + Long.MAX_VALUE / 1000000,
+            // Refreshes are triggered below, not by the schedule
+            "--foundry.recommendations.cf.refresh-interval-ms=3600000"
+        };
+        // Application lives in the default package, which cannot be imported from here
+        Class<?> application = Class.forName("Application");
+        boolean passed;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(arguments)) {
+            passed = check(context, database.getPath());
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean check(ConfigurableApplicationContext context, String databasePath) throws Exception {
+        JobService jobService = context.getBean(JobService.class);
+        CoOccurrenceRecommender recommender = context.getBean(CoOccurrenceRecommender.class);
+
+        String phone = "8" + System.nanoTime() % 1000000000L;
+        UserProfile profile = new UserProfile();
+        profile.setPhone(phone);
+        profile.setPasswordHash(BenchmarkDatabase.PASSWORD);
+        profile.setUserName("Refresh Check");
+        profile.setCityId(1L);
+        profile.setRole("employee");
+        profile.setEmail("");
+        context.getBean(UserService.class).signUp(profile);
+
+        long employer = queryLong(databasePath, "SELECT UserId FROM Employers ORDER BY UserId LIMIT 1");
+        long employee = queryLong(databasePath, "SELECT UserId FROM Users WHERE Phone = '" + phone + "'");
+        long a = postJob(jobService, databasePath, employer, "Refresh Check A");
+        long b = postJob(jobService, databasePath, employer, "Refresh Check B");
+        long c = postJob(jobService, databasePath, employer, "Refresh Check C");
+
+        recommender.reload();
+        jobService.shortlistJob(employee, a);
+        jobService.shortlistJob(employee, b);
+        recommender.refresh();
+        long rowidOfB = queryLong(databasePath, "SELECT rowid FROM Shortlist WHERE EmployeeId = " + employee + " AND JobId = " + b);
+        jobService.unshortlistJob(employee, b);
+        jobService.shortlistJob(employee, c);
+        long rowidOfC = queryLong(databasePath, "SELECT rowid FROM Shortlist WHERE EmployeeId = " + employee + " AND JobId = " + c);
+        if (rowidOfB != rowidOfC) {
+            System.out.println("SQLite did not reuse the rowid (" + rowidOfB + " then " + rowidOfC + "); the check proves nothing");
+            return false;
+        }
+        recommender.refresh();
+
+        long[] neighbors = recommender.recommend(a, null, 10);
+        boolean passed = Arrays.equals(neighbors, new long[] {c});
+        System.out.println("Neighbours of A after unshortlisting B and shortlisting C: " + Arrays.toString(neighbors)
+            + (passed ? ", as expected" : ", expected [" + c + "]"));
+        return passed;
+    }
+
+    private static long postJob(JobService jobService, String databasePath, long employer, String title) throws Exception {
+        JobPosting job = new JobPosting();
+        job.setEmployerId(employer);
+        job.setTitle(title);
+        job.setDescription("Posted by the co-occurrence refresh check");
+        job.setMinSalary(50.0);
+        job.setMaxSalary(90.0);
+        job.setWorkType("Full-time");
+        job.setCityId(1L);
+        jobService.postJob(job);
+        return queryLong(databasePath, "SELECT MAX(JobId) FROM JobPostings WHERE Title = '" + title + "'");
+    }
+
+    private static long queryLong(String databasePath, String sql) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath);
+             PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
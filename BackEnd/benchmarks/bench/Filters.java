@@ -0,0 +1,36 @@
+package bench;
+
+// Filter combinations shared by the search and count benchmarks, named by their @Param value
+class Filters {
+    Long cityId;
+    Long companyId;
+    Double minSalary;
+    Double maxSalary;
+    String workType;
+
+    static Filters parse(String names) {
+        Filters filters = new Filters();
+        for (String name : names.split("\\+")) {
+            switch (name) {
+                case "none":
+                    break;
+                case "city":
+                    filters.cityId = 42L;
+                    break;
+                case "company":
+                    filters.companyId = 7L;
+                    break;
+                case "workType":
+                    filters.workType = "Full-time";
+                    break;
+                case "salary":
+                    filters.minSalary = 60.0;
+                    filters.maxSalary = 150.0;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter " + name);
+            }
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,47 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The application context without the web server, opened on the seeded benchmark database.
+// Settings such as foundry.catalog.enabled can be overridden with -jvmArgsAppend -D...
+@State(Scope.Benchmark)
+public class FoundryState {
+    // Number of seeded jobs, e.g. -jvmArgsAppend -Dbench.jobs=100000
+    static final int JOBS = Integer.getInteger("bench.jobs", 20000);
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String databasePath = BenchmarkDatabase.ensure(JOBS);
+        // Application lives in the default package, which cannot be imported from here
+        Class<?> application = Class.forName("Application");
+        context = new SpringApplicationBuilder(application)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                // Arguments rather than default properties, which application.properties would override
+                "--foundry.datasource.path=" + databasePath,
+                "--spring.devtools.restart.enabled=false",
+                "--spring.devtools.livereload.enabled=false",
+                "--spring.main.banner-mode=off");
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.JobService;
+
+import java.util.concurrent.TimeUnit;
+
+// Total job count behind the pagination controls
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobCountBenchmark {
+    @Param({"none", "city", "company", "workType", "city+workType", "salary"})
+    public String filters;
+
+    private JobService jobService;
+    private Filters parsed;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        jobService = foundry.bean(JobService.class);
+        parsed = Filters.parse(filters);
+    }
+
+    @Benchmark
+    public int getTotalJobCount() {
+        return jobService.getTotalJobCount(parsed.cityId, parsed.companyId, parsed.minSalary, parsed.maxSalary, parsed.workType, false);
+    }
+
+    @Benchmark
+    public int getApproximateJobCount() {
+        return jobService.getTotalJobCount(parsed.cityId, parsed.companyId, parsed.minSalary, parsed.maxSalary, parsed.workType, true);
+    }
+}
@@ -0,0 +1,72 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import data.mapper.JobRowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+// Mapping one page of rows, read from an in-memory copy of the ResultSet so only the mapper is measured
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobRowMapperBenchmark {
+    private static final int ROWS = 75;
+
+    // "search" includes the engagement counters; "plain" lacks them, as in the shortlist query
+    @Param({"search", "plain"})
+    public String projection;
+
+    private JobRowMapper jobRowMapper;
+    private CachedRowSet rows;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        jobRowMapper = foundry.bean(JobRowMapper.class);
+        String sql = "search".equals(projection)
+            ? "SELECT j.*, COALESCE(je.ApplyCount, 0) AS apply_count, " +
+              "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+              "       COALESCE(je.ShortlistCount, 0) AS shortlist_count " +
+              "FROM JobDetailsView j LEFT JOIN JobEngagement je ON j.JobId = je.JobId LIMIT " + ROWS
+            : "SELECT j.* FROM JobDetailsView j LIMIT " + ROWS;
+        JdbcTemplate jdbcTemplate = foundry.bean(JdbcTemplate.class);
+        rows = jdbcTemplate.execute((ConnectionCallback<CachedRowSet>) connection -> {
+            try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+                CachedRowSet cached = RowSetProvider.newFactory().createCachedRowSet();
+                cached.populate(rs);
+                return cached;
+            }
+        });
+    }
+
+    @Benchmark
+    public void mapRow(Blackhole blackhole) throws SQLException {
+        rows.beforeFirst();
+        int rowNum = 0;
+        while (rows.next()) {
+            blackhole.consume(jobRowMapper.mapRow(rows, rowNum++));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.JobPosting;
+import service.JobService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Paged job search across filter combinations and page depths
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobSearchBenchmark {
+    private static final int PAGE_SIZE = 75;
+
+    @Param({"none", "city", "company", "workType", "city+workType", "salary"})
+    public String filters;
+
+    @Param({"0", "10", "100"})
+    public int page;
+
+    private JobService jobService;
+    private Long cityId;
+    private Long companyId;
+    private Double minSalary;
+    private Double maxSalary;
+    private String workType;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        jobService = foundry.bean(JobService.class);
+        Filters parsed = Filters.parse(filters);
+        cityId = parsed.cityId;
+        companyId = parsed.companyId;
+        minSalary = parsed.minSalary;
+        maxSalary = parsed.maxSalary;
+        workType = parsed.workType;
+        userId = BenchmarkDatabase.employeeId(0);
+    }
+
+    @Benchmark
+    public List<JobPosting> searchJobs() {
+        return jobService.searchJobs(cityId, companyId, minSalary, maxSalary, workType, PAGE_SIZE, page * PAGE_SIZE, null, false);
+    }
+
+    // Same page without descriptions, as served for view=summary
+    @Benchmark
+    public List<JobPosting> searchJobSummaries() {
+        return jobService.searchJobs(cityId, companyId, minSalary, maxSalary, workType, PAGE_SIZE, page * PAGE_SIZE, null, true);
+    }
+
+    // Same search for a signed-in employee, which also hides their disliked jobs
+    @Benchmark
+    public List<JobPosting> searchJobsForEmployee() {
+        return jobService.searchJobs(cityId, companyId, minSalary, maxSalary, workType, PAGE_SIZE, page * PAGE_SIZE, userId, false);
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import data.LoginRequest;
+import data.UserProfile;
+import service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+// Login by phone or email, including the BCrypt password check
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginBenchmark {
+    private static final int ACCOUNTS = 256;
+
+    @Param({"phone", "email"})
+    public String identifier;
+
+    private UserService userService;
+    private final LoginRequest[] requests = new LoginRequest[ACCOUNTS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        userService = foundry.bean(UserService.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            LoginRequest request = new LoginRequest();
+            request.setIdentifier("phone".equals(identifier)
+                ? BenchmarkDatabase.employeePhone(i)
+                : "user" + BenchmarkDatabase.employeeId(i) + "@example.com");
+            request.setPassword(BenchmarkDatabase.PASSWORD);
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public UserProfile login() throws Exception {
+        return userService.login(requests[next++ & (ACCOUNTS - 1)]);
+    }
+}
@@ -0,0 +1,390 @@
+package bench;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import config.QueryMetrics;
+import data.ApplicationCursor;
+import data.EmployeeProfile;
+import data.EmployerApplicationsPage;
+import data.JobAction;
+import data.JobCursor;
+import data.JobPosting;
+import data.LoginRequest;
+import data.UserProfile;
+import service.CompanyService;
+import service.EmployeeService;
+import service.JobService;
+import service.JobStatisticsService;
+import service.LocationService;
+import service.UserService;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Runs every service call against a copy of the seeded benchmark database, once with the in-memory components
+// and once with the SQL fallbacks, and records each statement executed under its query name. Every statement is
+// then explained with EXPLAIN QUERY PLAN. A full scan or a temp B-tree fails the check unless it is listed in
+// EXPECTED for that query. The plans are written to target/plans/query-plans.txt for diffing between versions.
+public class QueryPlanCheck {
+    private static final String REPORT = "target/plans/query-plans.txt";
+
+    // Application properties of each pass; the second one turns every in-memory answer path off
+    private static final String[][] PASSES = {
+        {},
+        {"--foundry.catalog.enabled=false", "--foundry.stats.enabled=false", "--foundry.recommendations.enabled=false",
+            "--foundry.recommendations.cf.enabled=false", "--foundry.count-cache.max-entries=0"}
+    };
+
+    // Scans and sorts that are fine for a query. An entry matches a plan line that equals it, or that continues
+    // with " USING ..." after it, so "SCAN c" allows "SCAN c USING COVERING INDEX ..." but not "SCAN co".
+    private static final Map<String, List<String>> EXPECTED = new HashMap<>();
+    static {
+        // Reference lists return the whole table
+        expect("getAllCompanies", "SCAN Companies");
+        expect("getAllLocations", "SCAN co", "SCAN c");
+        // Loads of the in-memory components read everything once at startup or reload
+        expect("stats.load", "SCAN e", "SCAN f");
+        expect("recommendations.load", "SCAN FocusOn", "SCAN e");
+        expect("recommendations.cf.count", "SCAN Applications", "SCAN Dislike", "SCAN Shortlist");
+        expect("recommendations.cf.inactive", "SCAN JobPostings");
+        // SQL fallbacks of the statistics; they aggregate over every job, so the planner drives them from Employers
+        expect("getTotalJobCount", "SCAN e");
+        expect("getCompanyStats.averages", "SCAN e");
+        expect("getCompanyStats.industryTop", "SCAN e", "USE TEMP B-TREE FOR DISTINCT", "USE TEMP B-TREE FOR ORDER BY");
+        expect("getLocationMaxsalary", "SCAN e", "USE TEMP B-TREE FOR GROUP BY", "USE TEMP B-TREE FOR ORDER BY");
+        expect("getLocationMinsalary", "SCAN e", "USE TEMP B-TREE FOR GROUP BY", "USE TEMP B-TREE FOR ORDER BY");
+        expect("getShortlistRatioStats", "SCAN jp", "USE TEMP B-TREE FOR ORDER BY");
+        // Rankings order by counts computed in the query
+        expect("getLocationStats.topApply", "USE TEMP B-TREE FOR ORDER BY");
+        expect("getLocationStats.topDislike", "USE TEMP B-TREE FOR ORDER BY");
+        expect("getLocationStats.topShortlist", "USE TEMP B-TREE FOR ORDER BY");
+        // Recommendation fallback filters every active job by industry, then orders by the match score
+        expect("getRecommendedJobs", "SCAN e", "USE TEMP B-TREE FOR ORDER BY");
+        // Sorts one employee's shortlist, which is small
+        expect("getShortlistedJobs", "USE TEMP B-TREE FOR ORDER BY");
+        // FTS rank is only known after matching
+        expect("searchJobsByKeyword", "USE TEMP B-TREE FOR ORDER BY");
+        // De-duplicates two unique index lookups (user name or email)
+        expect("login.findUser", "UNION USING TEMP B-TREE");
+    }
+
+    private static void expect(String query, String... planLines) {
+        EXPECTED.put(query, Arrays.asList(planLines));
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Devtools would otherwise restart this main method in its own class loader; an argument is too late for that
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int jobs = Integer.getInteger("bench.jobs", 20000);
+        for (String arg : args) {
+            if (arg.startsWith("--jobs=")) {
+                jobs = Integer.parseInt(arg.substring("--jobs=".length()));
+            }
+        }
+        // The calls below write, so they run on a copy and the benchmarks keep their data
+        File database = new File("target/plans/foundry-plans.db");
+        database.getParentFile().mkdirs();
+        Files.copy(new File(BenchmarkDatabase.ensure(jobs)).toPath(), database.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        Map<String, CapturedStatement> statements = Collections.synchronizedMap(new TreeMap<>());
+        for (String[] pass : PASSES) {
+            runPass(database.getPath(), pass, statements);
+        }
+
+        int violations = 0;
+        StringBuilder report = new StringBuilder();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database.getPath())) {
+            for (CapturedStatement statement : statements.values()) {
+                violations += explain(connection, statement, report);
+            }
+        }
+        try (PrintWriter out = new PrintWriter(REPORT, StandardCharsets.UTF_8.name())) {
+            out.print(report);
+        }
+        System.out.print(report);
+        System.out.println(statements.size() + " statements, " + violations + " unexpected scans or sorts; plans written to " + REPORT);
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void runPass(String databasePath, String[] pass, Map<String, CapturedStatement> statements) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+            "--foundry.datasource.path=" + databasePath,
+            "--spring.devtools.livereload.enabled=false",
+            "--spring.main.banner-mode=off",
+            // Every statement is explained below, so the slow query log would only repeat it
+            "--foundry.query-metrics.slow-threshold-ms=" + Long.MAX_VALUE / 1000000));
+        arguments.addAll(Arrays.asList(pass));
+
+        // Application lives in the default package, which cannot be imported from here
+        Class<?> application = Class.forName("Application");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(arguments.toArray(new String[0]))) {
+            Ids ids = new Ids(databasePath);
+            context.getBean(QueryMetrics.class).setStatementListener((name, sql, args) -> {
+                if (isExplainable(sql)) {
+                    statements.putIfAbsent(name + "\n" + normalize(sql), new CapturedStatement(name, normalize(sql), args));
+                }
+            });
+            exercise(context, ids);
+            context.getBean(QueryMetrics.class).setStatementListener(null);
+        }
+    }
+
+    // One call per service entry point, with arguments that reach every branch that builds different SQL
+    private static void exercise(ConfigurableApplicationContext context, Ids ids) throws Exception {
+        JobService jobService = context.getBean(JobService.class);
+        JobStatisticsService statisticsService = context.getBean(JobStatisticsService.class);
+        UserService userService = context.getBean(UserService.class);
+        EmployeeService employeeService = context.getBean(EmployeeService.class);
+
+        // Reloading builds the in-memory components even when they are disabled, which would hide the SQL fallbacks
+        if (context.getEnvironment().getProperty("foundry.catalog.enabled", Boolean.class, true)) {
+            run(() -> jobService.reloadCatalog());
+        }
+        run(() -> {
+            List<JobPosting> page = jobService.searchJobs(null, null, null, null, null, 20, 0, null, false);
+            jobService.searchJobsAfter(null, null, null, null, null, 20, JobCursor.after(page.get(page.size() - 1)), ids.employee, true);
+        });
+        run(() -> jobService.searchJobs(ids.city, ids.company, 40.0, 150.0, "Full-time", 20, 20, ids.employee, true));
+        run(() -> jobService.searchJobsByKeyword("java eng", true, null, null, null, null, null, 10, 0, ids.employee, false));
+        run(() -> jobService.searchJobsByKeyword("data", false, ids.city, null, null, null, null, 10, 0, null, true));
+        run(() -> jobService.getKeywordJobCount("java", ids.city, null, null, null, null));
+        run(() -> jobService.getTotalJobCount(ids.city, null, null, null, null, false));
+        run(() -> jobService.getTotalJobCount(null, ids.company, 40.0, null, "Contract", false));
+        run(() -> jobService.getTotalJobCount(ids.city, null, null, null, null, true));
+        run(() -> jobService.getJob(ids.job));
+        run(() -> jobService.getRecommendedJobs(ids.job, ids.employee, "industry"));
+        run(() -> jobService.getRecommendedJobs(ids.job, ids.employee, "cf"));
+        run(() -> jobService.getApplications(ids.employer));
+        run(() -> {
+            EmployerApplicationsPage page = jobService.getApplicationsPage(ids.employer, null, null, 2, null);
+            if (page.getNextCursor() != null) {
+                jobService.getApplicationsPage(ids.employer, null, null, 2, ApplicationCursor.decode(page.getNextCursor()));
+            }
+            jobService.getApplicationsPage(ids.employer, ids.job, "Pending", 50, null);
+        });
+        run(() -> jobService.getApplicationsByEmployeeId(ids.employee));
+        run(() -> jobService.getShortlistedJobs(ids.employee, true));
+
+        run(() -> statisticsService.getLocationStats(ids.city));
+        run(() -> statisticsService.getCompanyStats(ids.company));
+        run(() -> statisticsService.getShortlistRatioStats());
+        run(() -> statisticsService.getShortlistRatioForJob(ids.job));
+        run(() -> statisticsService.getShortlistRatioForEmployer(ids.employer));
+        run(() -> statisticsService.getLocationMinsalary());
+        run(() -> statisticsService.getLocationMaxsalary());
+
+        run(() -> context.getBean(CompanyService.class).getAllCompanies());
+        run(() -> context.getBean(LocationService.class).getAllLocations());
+        run(() -> {
+            LoginRequest login = new LoginRequest();
+            login.setIdentifier(BenchmarkDatabase.employeePhone(0));
+            login.setPassword(BenchmarkDatabase.PASSWORD);
+            userService.login(login);
+        });
+        run(() -> {
+            UserProfile profile = new UserProfile();
+            profile.setPhone("9" + System.nanoTime() % 1000000000L);
+            profile.setPasswordHash(BenchmarkDatabase.PASSWORD);
+            profile.setUserName("Plan Check");
+            profile.setCityId(ids.city);
+            profile.setRole("employee");
+            profile.setEmail("");
+            userService.signUp(profile);
+        });
+        run(() -> {
+            EmployeeProfile profile = new EmployeeProfile();
+            profile.setResumeUrl("resumes/plan-check.pdf");
+            employeeService.updateProfile(ids.employee, profile);
+        });
+
+        run(() -> jobService.shortlistJob(ids.employee, ids.otherJob));
+        run(() -> jobService.unshortlistJob(ids.employee, ids.otherJob));
+        run(() -> jobService.dislikeJob(ids.employee, ids.otherJob));
+        run(() -> jobService.undislikeJob(ids.employee, ids.otherJob));
+        run(() -> jobService.applyJobActions(Arrays.asList(
+            action("shortlist", ids.employee, ids.otherJob), action("unshortlist", ids.employee, ids.otherJob),
+            action("dislike", ids.employee, ids.otherJob), action("undislike", ids.employee, ids.otherJob))));
+        run(() -> jobService.applyToJob(ids.employee, ids.otherJob));
+        run(() -> jobService.changeApplicationStatus(ids.employee, ids.otherJob, "Interviewing"));
+        run(() -> jobService.changeApplicationStatus(ids.employee, ids.otherJob, "Accepted"));
+        run(() -> {
+            JobPosting job = new JobPosting();
+            job.setEmployerId(ids.employer);
+            job.setTitle("Plan Check");
+            job.setDescription("Posted by the query plan check");
+            job.setMinSalary(50.0);
+            job.setMaxSalary(90.0);
+            job.setWorkType("Full-time");
+            job.setCityId(ids.city);
+            jobService.postJob(job);
+        });
+    }
+
+    // A failing call still leaves its statements to explain; its error is only reported
+    private static void run(Call call) {
+        try {
+            call.run();
+        } catch (Exception e) {
+            System.err.println("Call failed: " + e);
+        }
+    }
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    private static JobAction action(String kind, long employeeId, long jobId) {
+        JobAction action = new JobAction();
+        action.setAction(kind);
+        action.setEmployeeId(employeeId);
+        action.setJobId(jobId);
+        return action;
+    }
+
+    // Appends the plan of one statement to the report and returns the number of unexpected lines
+    private static int explain(Connection connection, CapturedStatement statement, StringBuilder report) {
+        report.append("== ").append(statement.name).append('\n');
+        report.append(statement.sql).append('\n');
+        List<String> expected = EXPECTED.getOrDefault(statement.name, Collections.emptyList());
+        int violations = 0;
+        try (PreparedStatement ps = connection.prepareStatement("EXPLAIN QUERY PLAN " + statement.sql)) {
+            if (statement.args != null) {
+                for (int i = 0; i < statement.args.length && i < ps.getParameterMetaData().getParameterCount(); i++) {
+                    ps.setObject(i + 1, statement.args[i]);
+                }
+            }
+            Map<Integer, Integer> depths = new HashMap<>();
+            Set<String> intermediates = new HashSet<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    int depth = depths.getOrDefault(rs.getInt("parent"), 0);
+                    depths.put(rs.getInt("id"), depth + 1);
+                    String detail = rs.getString("detail");
+                    rememberIntermediate(detail, intermediates);
+                    boolean unexpected = isScanOrSort(detail, intermediates) && expected.stream().noneMatch(line -> matches(detail, line));
+                    if (unexpected) {
+                        violations++;
+                    }
+                    report.append(unexpected ? "!! " : "   ");
+                    for (int i = 0; i < depth; i++) {
+                        report.append("  ");
+                    }
+                    report.append(detail).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            violations++;
+            report.append("!! explain failed: ").append(e.getMessage()).append('\n');
+        }
+        report.append('\n');
+        return violations;
+    }
+
+    private static boolean matches(String detail, String expectedLine) {
+        return detail.equals(expectedLine) || detail.startsWith(expectedLine + " USING ");
+    }
+
+    // Subqueries and CTEs are evaluated into intermediate results that the outer query then scans
+    private static void rememberIntermediate(String detail, Set<String> intermediates) {
+        for (String prefix : new String[] {"MATERIALIZE ", "CO-ROUTINE "}) {
+            if (detail.startsWith(prefix)) {
+                intermediates.add(detail.substring(prefix.length()).trim());
+            }
+        }
+    }
+
+    private static boolean isScanOrSort(String detail, Set<String> intermediates) {
+        if (detail.contains("TEMP B-TREE")) {
+            return true;
+        }
+        if (!detail.startsWith("SCAN ") || detail.contains("VIRTUAL TABLE") || detail.startsWith("SCAN CONSTANT ROW")) {
+            return false;
+        }
+        String target = detail.substring("SCAN ".length()).split(" USING ")[0].trim();
+        return !intermediates.contains(target);
+    }
+
+    private static boolean isExplainable(String sql) {
+        String start = sql.trim().toUpperCase(Locale.ROOT);
+        return start.startsWith("SELECT") || start.startsWith("WITH") || start.startsWith("INSERT")
+            || start.startsWith("UPDATE") || start.startsWith("DELETE");
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+
+    private static class CapturedStatement {
+        final String name;
+        final String sql;
+        final Object[] args;
+
+        CapturedStatement(String name, String sql, Object[] args) {
+            this.name = name;
+            this.sql = sql;
+            this.args = args;
+        }
+    }
+
+    // Ids the calls use, looked up in the seeded data before the pass starts recording
+    private static class Ids {
+        final long employee = BenchmarkDatabase.employeeId(0);
+        long employer;
+        long job;
+        long otherJob;
+        long city;
+        long company;
+
+        Ids(String databasePath) throws SQLException {
+            try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath)) {
+                // An active job with applications, and one nobody applied to that the employee has not touched
+                job = queryLong(connection,
+                    "SELECT a.JobId FROM Applications a JOIN JobPostings j ON j.JobId = a.JobId " +
+                    "WHERE j.IsActive = 1 ORDER BY a.JobId LIMIT 1");
+                employer = queryLong(connection, "SELECT EmployerId FROM JobPostings WHERE JobId = " + job);
+                city = queryLong(connection, "SELECT CityId FROM JobPostings WHERE JobId = " + job);
+                company = queryLong(connection, "SELECT CompanyId FROM Employers WHERE UserId = " + employer);
+                otherJob = queryLong(connection,
+                    "SELECT JobId FROM JobPostings j WHERE IsActive = 1 " +
+                    "AND NOT EXISTS (SELECT 1 FROM Applications a WHERE a.JobId = j.JobId) " +
+                    "AND NOT EXISTS (SELECT 1 FROM Shortlist s WHERE s.EmployeeId = " + employee + " AND s.JobId = j.JobId) " +
+                    "AND NOT EXISTS (SELECT 1 FROM Dislike d WHERE d.EmployeeId = " + employee + " AND d.JobId = j.JobId) " +
+                    "ORDER BY JobId DESC LIMIT 1");
+            }
+        }
+
+        private static long queryLong(Connection connection, String sql) throws SQLException {
+            try (PreparedStatement ps = connection.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("Seeded database has no row for: " + sql);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.recommendations.CoOccurrenceRecommender;
+import data.JobPosting;
+import service.JobService;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// "Jobs like this one" recommendations for a rotating set of jobs and employees
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationBenchmark {
+    private static final int PAIRS = 1024;
+
+    private JobService jobService;
+    private final long[] jobIds = new long[PAIRS];
+    private final long[] userIds = new long[PAIRS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        jobService = foundry.bean(JobService.class);
+        // Build the co-occurrence model now rather than waiting for its first scheduled refresh
+        foundry.bean(CoOccurrenceRecommender.class).reload();
+        Random random = new Random(7);
+        for (int i = 0; i < PAIRS; i++) {
+            jobIds[i] = 1 + random.nextInt(FoundryState.JOBS);
+            userIds[i] = BenchmarkDatabase.employeeId(random.nextInt(BenchmarkDatabase.EMPLOYEES));
+        }
+    }
+
+    @Benchmark
+    public List<JobPosting> getRecommendedJobs() {
+        int i = next++ & (PAIRS - 1);
+        return jobService.getRecommendedJobs(jobIds[i], userIds[i], null);
+    }
+
+    @Benchmark
+    public List<JobPosting> getCoOccurrenceRecommendations() {
+        int i = next++ & (PAIRS - 1);
+        return jobService.getRecommendedJobs(jobIds[i], userIds[i], "cf");
+    }
+}
@@ -0,0 +1,48 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import service.JobStatisticsService;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Location and company engagement statistics, cycling through every city and company
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsBenchmark {
+    private JobStatisticsService statisticsService;
+    private int nextCity;
+    private int nextCompany;
+
+    @Setup(Level.Trial)
+    public void setUp(FoundryState foundry) {
+        statisticsService = foundry.bean(JobStatisticsService.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> getLocationStats() {
+        nextCity = nextCity % BenchmarkDatabase.CITIES + 1;
+        return statisticsService.getLocationStats((long) nextCity);
+    }
+
+    @Benchmark
+    public Map<String, Object> getCompanyStats() {
+        nextCompany = nextCompany % BenchmarkDatabase.COMPANIES + 1;
+        return statisticsService.getCompanyStats((long) nextCompany);
+    }
+}
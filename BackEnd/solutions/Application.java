@@ -1,9 +1,11 @@
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@ComponentScan(basePackages = {"controller", "service", "config", "data", "components.views"})
+@EnableScheduling
+@ComponentScan(basePackages = {"controller", "service", "config", "data", "components.schema", "components.catalog", "components.cache", "components.events", "components.stats", "components.recommendations"})
 public class Application {
     public static void main(String[] args) {
         SpringApplication.run(Application.class, args);
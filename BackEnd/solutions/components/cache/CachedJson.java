@@ -0,0 +1,58 @@
+package components.cache;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+// Pre-serialized JSON body together with the strong ETag computed from its bytes
+public class CachedJson {
+    private final byte[] body;
+    private final String etag;
+    private final long version;
+
+    public CachedJson(byte[] body, String etag, long version) {
+        this.body = body;
+        this.etag = etag;
+        this.version = version;
+    }
+
+    // True when an If-None-Match header already names this representation
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 304 without a body when the client already has this version, otherwise the cached bytes
+    public ResponseEntity<byte[]> toResponse(String ifNoneMatch, CacheControl cacheControl) {
+        if (matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(cacheControl)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    // Getters
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,99 @@
+package components.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import components.catalog.JobCatalog;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+
+// Bounded cache of job counts per filter combination, so paging through results does not recount them.
+// Entries remember the catalog version they were counted at and are only served while it is unchanged;
+// posting, closing or reloading jobs bumps the version.
+@Component
+public class JobCountCache {
+    @Autowired
+    private JobCatalog jobCatalog;
+
+    // 0 disables the cache
+    @Value("${foundry.count-cache.max-entries:1024}")
+    private int maxEntries;
+
+    private final Map<Key, CachedCount> entries = new LinkedHashMap<Key, CachedCount>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CachedCount> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public int get(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType, IntSupplier loader) {
+        Key key = new Key(cityId, companyId, minSalary, maxSalary, workType);
+        // Read before counting: a change that lands during the count leaves the entry stale, never current
+        long currentVersion = jobCatalog.getVersion();
+        synchronized (entries) {
+            CachedCount cached = entries.get(key);
+            if (cached != null && cached.version == currentVersion) {
+                return cached.count;
+            }
+        }
+
+        int count = loader.getAsInt();
+        synchronized (entries) {
+            if (jobCatalog.getVersion() == currentVersion) {
+                entries.put(key, new CachedCount(count, currentVersion));
+            }
+        }
+        return count;
+    }
+
+    private static class CachedCount {
+        final int count;
+        final long version;
+
+        CachedCount(int count, long version) {
+            this.count = count;
+            this.version = version;
+        }
+    }
+
+    // Filter tuple with salaries normalized, so that e.g. -0.0 and 0.0 share an entry
+    private static class Key {
+        final Long cityId;
+        final Long companyId;
+        final Double minSalary;
+        final Double maxSalary;
+        final String workType;
+
+        Key(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType) {
+            this.cityId = cityId;
+            this.companyId = companyId;
+            this.minSalary = normalize(minSalary);
+            this.maxSalary = normalize(maxSalary);
+            this.workType = workType;
+        }
+
+        private static Double normalize(Double salary) {
+            return salary != null ? salary + 0.0 : null;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return Objects.equals(cityId, key.cityId) && Objects.equals(companyId, key.companyId)
+                && Objects.equals(minSalary, key.minSalary) && Objects.equals(maxSalary, key.maxSalary)
+                && Objects.equals(workType, key.workType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cityId, companyId, minSalary, maxSalary, workType);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package components.cache;
+
+import java.util.Arrays;
+
+// Immutable compressed set of job ids, laid out like a Roaring bitmap: ids are grouped by their high bits into
+// chunks of 65536, and each chunk holds its low 16 bits either as a sorted char array (sparse) or as a
+// 65536-bit bitmap (dense). with/without copy only the chunk they touch.
+public final class JobIdBitmap {
+    public static final JobIdBitmap EMPTY = new JobIdBitmap(new long[0], new Object[0], 0);
+
+    // An array chunk past this size takes more memory than the bitmap
+    private static final int MAX_ARRAY_SIZE = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private final long[] highs;
+    // char[] or long[BITMAP_WORDS], one per entry of highs
+    private final Object[] chunks;
+    private final int cardinality;
+
+    private JobIdBitmap(long[] highs, Object[] chunks, int cardinality) {
+        this.highs = highs;
+        this.chunks = chunks;
+        this.cardinality = cardinality;
+    }
+
+    public static JobIdBitmap of(long[] jobIds) {
+        long[] sorted = jobIds.clone();
+        Arrays.sort(sorted);
+        long[] highs = new long[sorted.length];
+        Object[] chunks = new Object[sorted.length];
+        int chunkCount = 0;
+        int cardinality = 0;
+        int start = 0;
+        while (start < sorted.length) {
+            long high = sorted[start] >>> 16;
+            int end = start;
+            while (end < sorted.length && sorted[end] >>> 16 == high) {
+                end++;
+            }
+            char[] lows = new char[end - start];
+            int size = 0;
+            for (int i = start; i < end; i++) {
+                char low = (char) sorted[i];
+                if (size == 0 || lows[size - 1] != low) {
+                    lows[size++] = low;
+                }
+            }
+            highs[chunkCount] = high;
+            chunks[chunkCount++] = compact(Arrays.copyOf(lows, size));
+            cardinality += size;
+            start = end;
+        }
+        return new JobIdBitmap(Arrays.copyOf(highs, chunkCount), Arrays.copyOf(chunks, chunkCount), cardinality);
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean contains(long jobId) {
+        int at = Arrays.binarySearch(highs, jobId >>> 16);
+        return at >= 0 && chunkContains(chunks[at], (char) jobId);
+    }
+
+    public JobIdBitmap with(long jobId) {
+        if (contains(jobId)) {
+            return this;
+        }
+        long high = jobId >>> 16;
+        char low = (char) jobId;
+        int at = Arrays.binarySearch(highs, high);
+        if (at >= 0) {
+            Object[] newChunks = chunks.clone();
+            newChunks[at] = chunkWith(chunks[at], low);
+            return new JobIdBitmap(highs, newChunks, cardinality + 1);
+        }
+        int insert = -at - 1;
+        long[] newHighs = new long[highs.length + 1];
+        Object[] newChunks = new Object[chunks.length + 1];
+        System.arraycopy(highs, 0, newHighs, 0, insert);
+        System.arraycopy(chunks, 0, newChunks, 0, insert);
+        newHighs[insert] = high;
+        newChunks[insert] = new char[] {low};
+        System.arraycopy(highs, insert, newHighs, insert + 1, highs.length - insert);
+        System.arraycopy(chunks, insert, newChunks, insert + 1, chunks.length - insert);
+        return new JobIdBitmap(newHighs, newChunks, cardinality + 1);
+    }
+
+    public JobIdBitmap without(long jobId) {
+        if (!contains(jobId)) {
+            return this;
+        }
+        int at = Arrays.binarySearch(highs, jobId >>> 16);
+        Object chunk = chunkWithout(chunks[at], (char) jobId);
+        if (chunk != null) {
+            Object[] newChunks = chunks.clone();
+            newChunks[at] = chunk;
+            return new JobIdBitmap(highs, newChunks, cardinality - 1);
+        }
+        // The chunk became empty
+        long[] newHighs = new long[highs.length - 1];
+        Object[] newChunks = new Object[chunks.length - 1];
+        System.arraycopy(highs, 0, newHighs, 0, at);
+        System.arraycopy(chunks, 0, newChunks, 0, at);
+        System.arraycopy(highs, at + 1, newHighs, at, highs.length - at - 1);
+        System.arraycopy(chunks, at + 1, newChunks, at, chunks.length - at - 1);
+        return new JobIdBitmap(newHighs, newChunks, cardinality - 1);
+    }
+
+    private static boolean chunkContains(Object chunk, char low) {
+        if (chunk instanceof char[]) {
+            return Arrays.binarySearch((char[]) chunk, low) >= 0;
+        }
+        return (((long[]) chunk)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    // low is known to be absent
+    private static Object chunkWith(Object chunk, char low) {
+        if (chunk instanceof char[]) {
+            char[] lows = (char[]) chunk;
+            int insert = -Arrays.binarySearch(lows, low) - 1;
+            char[] grown = new char[lows.length + 1];
+            System.arraycopy(lows, 0, grown, 0, insert);
+            grown[insert] = low;
+            System.arraycopy(lows, insert, grown, insert + 1, lows.length - insert);
+            return compact(grown);
+        }
+        long[] words = ((long[]) chunk).clone();
+        words[low >>> 6] |= 1L << low;
+        return words;
+    }
+
+    // low is known to be present; returns null when the chunk is left empty
+    private static Object chunkWithout(Object chunk, char low) {
+        if (chunk instanceof char[]) {
+            char[] lows = (char[]) chunk;
+            if (lows.length == 1) {
+                return null;
+            }
+            int at = Arrays.binarySearch(lows, low);
+            char[] shrunk = new char[lows.length - 1];
+            System.arraycopy(lows, 0, shrunk, 0, at);
+            System.arraycopy(lows, at + 1, shrunk, at, lows.length - at - 1);
+            return shrunk;
+        }
+        long[] words = ((long[]) chunk).clone();
+        words[low >>> 6] &= ~(1L << low);
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size > MAX_ARRAY_SIZE ? words : toArray(words, size);
+    }
+
+    // Switches a sorted array chunk to a bitmap once it outgrows MAX_ARRAY_SIZE
+    private static Object compact(char[] lows) {
+        if (lows.length <= MAX_ARRAY_SIZE) {
+            return lows;
+        }
+        long[] words = new long[BITMAP_WORDS];
+        for (char low : lows) {
+            words[low >>> 6] |= 1L << low;
+        }
+        return words;
+    }
+
+    private static char[] toArray(long[] words, int size) {
+        char[] lows = new char[size];
+        int next = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                lows[next++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return lows;
+    }
+}
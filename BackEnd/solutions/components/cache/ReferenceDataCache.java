@@ -0,0 +1,81 @@
+package components.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounded cache of serialized reference lists (companies, locations) that rarely change.
+// Every invalidation bumps the version, so entries built before it are never served again.
+@Component
+public class ReferenceDataCache {
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${foundry.reference-cache.max-entries:16}")
+    private int maxEntries;
+
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, CachedJson> entries = new LinkedHashMap<String, CachedJson>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedJson> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public CachedJson get(String key, Supplier<?> loader) {
+        long currentVersion = version.get();
+        synchronized (entries) {
+            CachedJson cached = entries.get(key);
+            if (cached != null && cached.getVersion() == currentVersion) {
+                return cached;
+            }
+        }
+
+        // Load outside the lock so a slow query does not block hits on other keys
+        byte[] body = serialize(loader.get());
+        CachedJson loaded = new CachedJson(body, "\"" + digest(body) + "\"", currentVersion);
+        synchronized (entries) {
+            if (version.get() == currentVersion) {
+                entries.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing reference data: " + e.getMessage(), e);
+        }
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package components.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import config.QueryMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bounded cache of the jobs each employee disliked or applied to, so personalized search and recommendations
+// filter in memory instead of reading the user's rows on every request. Sets are loaded on first use and kept
+// current by the writes, which report each change after it committed; the least recently used users are evicted.
+@Component
+public class UserJobSets {
+    public enum Kind {
+        DISLIKED("getDislikedJobIds", "SELECT JobId FROM Dislike WHERE EmployeeId = ?"),
+        APPLIED("getAppliedJobIds", "SELECT JobId FROM Applications WHERE EmployeeId = ?");
+
+        private final String queryName;
+        private final String sql;
+
+        Kind(String queryName, String sql) {
+            this.queryName = queryName;
+            this.sql = sql;
+        }
+    }
+
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    // 0 disables the cache
+    @Value("${foundry.user-sets.max-users:10000}")
+    private int maxUsers;
+
+    private final Map<Long, JobIdBitmap[]> users = new LinkedHashMap<Long, JobIdBitmap[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, JobIdBitmap[]> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    // Bumped by every change; a load that overlapped one may have missed it and is not cached
+    private long version;
+
+    public JobIdBitmap get(Kind kind, long userId) {
+        long loadVersion;
+        synchronized (users) {
+            JobIdBitmap[] sets = users.get(userId);
+            if (sets != null && sets[kind.ordinal()] != null) {
+                return sets[kind.ordinal()];
+            }
+            loadVersion = version;
+        }
+
+        JobIdBitmap loaded = load(kind, userId);
+        synchronized (users) {
+            if (maxUsers > 0 && version == loadVersion) {
+                users.computeIfAbsent(userId, id -> new JobIdBitmap[Kind.values().length])[kind.ordinal()] = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    public void added(Kind kind, long userId, long jobId) {
+        synchronized (users) {
+            version++;
+            JobIdBitmap[] sets = users.get(userId);
+            if (sets != null && sets[kind.ordinal()] != null) {
+                sets[kind.ordinal()] = sets[kind.ordinal()].with(jobId);
+            }
+        }
+    }
+
+    public void removed(Kind kind, long userId, long jobId) {
+        synchronized (users) {
+            version++;
+            JobIdBitmap[] sets = users.get(userId);
+            if (sets != null && sets[kind.ordinal()] != null) {
+                sets[kind.ordinal()] = sets[kind.ordinal()].without(jobId);
+            }
+        }
+    }
+
+    // Drop everything, e.g. after rows were changed outside the application
+    public void clear() {
+        synchronized (users) {
+            version++;
+            users.clear();
+        }
+    }
+
+    private JobIdBitmap load(Kind kind, long userId) {
+        List<Long> jobIds = queryMetrics.record(kind.queryName, () -> readJdbcTemplate.queryForList(kind.sql, Long.class, userId));
+        long[] ids = new long[jobIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = jobIds.get(i);
+        }
+        return JobIdBitmap.of(ids);
+    }
+}
@@ -0,0 +1,527 @@
+package components.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+
+import config.QueryMetrics;
+import data.JobCursor;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+// In-memory columnar copy of the search filter fields of every active job.
+// Slots are ordered by (PostDate, JobId) ascending, so newest jobs sit at the end and
+// searches walk slots backwards to produce the same order as ORDER BY PostDate DESC, JobId DESC.
+@Component
+@DependsOn("schemaMigrations")
+public class JobCatalog {
+    static final String[] WORK_TYPES = {"Full-time", "Part-time", "Contract", "Intern"};
+
+    private static final String LOAD_SQL =
+        "SELECT JobId, PostDate, CityId, CompanyId, MinSalary, MaxSalary, WorkType " +
+        "FROM JobDetailsView " +
+        "WHERE IsActive = 1 ";
+
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Value("${foundry.catalog.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Columns columns;
+    // Bumped after every change to the set of active jobs, whether or not the catalog is loaded,
+    // so results derived from the old set (e.g. cached counts) can be recognised as stale
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Whether searches can be answered from memory. Only a hint: a failed reload can unload the catalog right after,
+    // so callers still fall back to SQL when search or count report that it is not loaded.
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public void reload() {
+        try {
+            Columns loaded = new Columns(1024);
+            queryMetrics.record("catalog.load", () -> {
+                readJdbcTemplate.query(LOAD_SQL + "ORDER BY PostDate, JobId", (RowCallbackHandler) rs -> loaded.append(
+                    rs.getLong("JobId"), parsePostDay(rs.getString("PostDate")), rs.getLong("CityId"),
+                    rs.getLong("CompanyId"), rs.getDouble("MinSalary"), rs.getDouble("MaxSalary"),
+                    workTypeCode(rs.getString("WorkType"))));
+                return null;
+            });
+
+            lock.writeLock().lock();
+            try {
+                columns = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            // Leave the catalog unavailable rather than serving results that differ from SQL
+            System.err.println("Error loading job catalog: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                columns = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+
+    // Called after a new posting is committed
+    public void onJobPosted(long jobId) {
+        if (!isReady()) {
+            version.incrementAndGet();
+            return;
+        }
+        List<Object[]> rows = queryMetrics.record("catalog.loadJob", () -> readJdbcTemplate.query(LOAD_SQL + "AND JobId = ?", (rs, rowNum) -> new Object[] {
+            parsePostDay(rs.getString("PostDate")), rs.getLong("CityId"), rs.getLong("CompanyId"),
+            rs.getDouble("MinSalary"), rs.getDouble("MaxSalary"), workTypeCode(rs.getString("WorkType"))
+        }, jobId));
+        if (rows.isEmpty()) {
+            version.incrementAndGet();
+            return;
+        }
+        Object[] row = rows.get(0);
+
+        boolean loaded;
+        boolean appended = false;
+        lock.writeLock().lock();
+        try {
+            Columns current = columns;
+            loaded = current != null;
+            if (loaded) {
+                appended = current.appendIfLatest(jobId, (Integer) row[0], (Long) row[1], (Long) row[2],
+                    (Double) row[3], (Double) row[4], (Byte) row[5]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Back-dated postings cannot be appended without breaking the slot order
+        if (loaded && !appended) {
+            reload();
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    // Called when a job stops being active, e.g. after auto_withdraw_applications closes it
+    public void onJobDeactivated(long jobId) {
+        if (!isReady()) {
+            version.incrementAndGet();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Columns current = columns;
+            if (current != null) {
+                current.deactivate(jobId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        version.incrementAndGet();
+    }
+
+    // Job ids of one result page, newest first. Pass either an offset or a cursor to continue after.
+    // null when the catalog is not loaded.
+    public long[] search(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType,
+                         Integer limit, Integer offset, JobCursor after, LongPredicate excluded) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            if (current == null) {
+                return null;
+            }
+            int maxResults = limit != null && limit >= 0 ? limit : Integer.MAX_VALUE;
+            int toSkip = offset != null ? offset : 0;
+            long[] result = new long[Math.min(maxResults, 1024)];
+            int found = 0;
+
+            SlotIterator slots = current.slots(cityId, companyId, workType,
+                after != null ? current.slotAfter(parsePostDay(after.getPostDate()), after.getJobId()) : current.size);
+            for (int slot = slots.next(); slot >= 0 && found < maxResults; slot = slots.next()) {
+                if (!current.matches(slot, cityId, companyId, minSalary, maxSalary, workType, excluded)) {
+                    continue;
+                }
+                if (toSkip > 0) {
+                    toSkip--;
+                    continue;
+                }
+                if (found == result.length) {
+                    result = Arrays.copyOf(result, found * 2);
+                }
+                result[found++] = current.jobIds[slot];
+            }
+            return Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // -1 when the catalog is not loaded
+    public int count(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            if (current == null) {
+                return -1;
+            }
+            int count = 0;
+            SlotIterator slots = current.slots(cityId, companyId, workType, current.size);
+            for (int slot = slots.next(); slot >= 0; slot = slots.next()) {
+                if (current.matches(slot, cityId, companyId, minSalary, maxSalary, workType, null)) {
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Estimated count from the per-filter histograms alone, assuming the filters are independent.
+    // Exact when at most one filter is set; no slot is visited, so broad filters cost the same as narrow ones.
+    // -1 when the catalog is not loaded.
+    public int estimateCount(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType) {
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            if (current == null) {
+                return -1;
+            }
+            double total = current.activeCount;
+            if (total == 0) {
+                return 0;
+            }
+            double estimate = total;
+            if (cityId != null) {
+                estimate *= current.cityCounts.get(cityId) / total;
+            }
+            if (companyId != null) {
+                estimate *= current.companyCounts.get(companyId) / total;
+            }
+            if (minSalary != null) {
+                estimate *= current.minSalaryCounts.atLeast(minSalary) / total;
+            }
+            if (maxSalary != null) {
+                estimate *= current.maxSalaryCounts.atMost(maxSalary) / total;
+            }
+            if (workType != null) {
+                byte code = workTypeCode(workType);
+                estimate *= (code >= 0 ? current.workTypeCounts[code] : 0) / total;
+            }
+            return (int) Math.round(estimate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int parsePostDay(String postDate) {
+        if (postDate == null || postDate.length() < 10) {
+            throw new IllegalArgumentException("Unsupported PostDate: " + postDate);
+        }
+        try {
+            return (int) LocalDate.parse(postDate.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unsupported PostDate: " + postDate);
+        }
+    }
+
+    static byte workTypeCode(String workType) {
+        for (byte i = 0; i < WORK_TYPES.length; i++) {
+            if (WORK_TYPES[i].equals(workType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Walks candidate slots from newest to oldest
+    interface SlotIterator {
+        int next();
+    }
+
+    // Growable list of slots, kept in ascending order because slots are only ever appended
+    static class SlotList {
+        int[] slots = new int[8];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        // Index of the last slot strictly below the given bound, or -1
+        int lastIndexBelow(int bound) {
+            int index = Arrays.binarySearch(slots, 0, size, bound);
+            return (index >= 0 ? index : -index - 1) - 1;
+        }
+    }
+
+    // Number of active slots per filter value
+    static class ValueCounts<K> {
+        final Map<K, int[]> counts;
+
+        ValueCounts(Map<K, int[]> counts) {
+            this.counts = counts;
+        }
+
+        void add(K value, int delta) {
+            int[] count = counts.computeIfAbsent(value, key -> new int[1]);
+            count[0] += delta;
+            if (count[0] == 0) {
+                counts.remove(value);
+            }
+        }
+
+        int get(K value) {
+            int[] count = counts.get(value);
+            return count != null ? count[0] : 0;
+        }
+    }
+
+    // Salaries take few distinct values, so a sorted count per value answers range filters in a short walk
+    static class SalaryCounts extends ValueCounts<Double> {
+        SalaryCounts() {
+            super(new TreeMap<>());
+        }
+
+        int atLeast(double bound) {
+            return sum(((TreeMap<Double, int[]>) counts).tailMap(bound, true));
+        }
+
+        int atMost(double bound) {
+            return sum(((TreeMap<Double, int[]>) counts).headMap(bound, true));
+        }
+
+        private static int sum(Map<Double, int[]> range) {
+            int total = 0;
+            for (int[] count : range.values()) {
+                total += count[0];
+            }
+            return total;
+        }
+    }
+
+    static class Columns {
+        long[] jobIds;
+        int[] postDays;
+        long[] cityIds;
+        long[] companyIds;
+        double[] minSalaries;
+        double[] maxSalaries;
+        byte[] workTypes;
+        final BitSet active = new BitSet();
+        int size;
+
+        // Posting lists per filter value
+        final Map<Long, SlotList> byCity = new HashMap<>();
+        final Map<Long, SlotList> byCompany = new HashMap<>();
+        final SlotList[] byWorkType = new SlotList[WORK_TYPES.length];
+
+        // Active jobs per filter value, for estimated counts
+        int activeCount;
+        final ValueCounts<Long> cityCounts = new ValueCounts<>(new HashMap<>());
+        final ValueCounts<Long> companyCounts = new ValueCounts<>(new HashMap<>());
+        final int[] workTypeCounts = new int[WORK_TYPES.length];
+        final SalaryCounts minSalaryCounts = new SalaryCounts();
+        final SalaryCounts maxSalaryCounts = new SalaryCounts();
+
+        Columns(int capacity) {
+            jobIds = new long[capacity];
+            postDays = new int[capacity];
+            cityIds = new long[capacity];
+            companyIds = new long[capacity];
+            minSalaries = new double[capacity];
+            maxSalaries = new double[capacity];
+            workTypes = new byte[capacity];
+            for (int i = 0; i < byWorkType.length; i++) {
+                byWorkType[i] = new SlotList();
+            }
+        }
+
+        void append(long jobId, int postDay, long cityId, long companyId, double minSalary, double maxSalary, byte workType) {
+            if (size == jobIds.length) {
+                grow();
+            }
+            int slot = size++;
+            jobIds[slot] = jobId;
+            postDays[slot] = postDay;
+            cityIds[slot] = cityId;
+            companyIds[slot] = companyId;
+            minSalaries[slot] = minSalary;
+            maxSalaries[slot] = maxSalary;
+            workTypes[slot] = workType;
+            active.set(slot);
+
+            byCity.computeIfAbsent(cityId, key -> new SlotList()).add(slot);
+            byCompany.computeIfAbsent(companyId, key -> new SlotList()).add(slot);
+            if (workType >= 0) {
+                byWorkType[workType].add(slot);
+            }
+            countActive(slot, 1);
+        }
+
+        private void countActive(int slot, int delta) {
+            activeCount += delta;
+            cityCounts.add(cityIds[slot], delta);
+            companyCounts.add(companyIds[slot], delta);
+            if (workTypes[slot] >= 0) {
+                workTypeCounts[workTypes[slot]] += delta;
+            }
+            minSalaryCounts.add(minSalaries[slot], delta);
+            maxSalaryCounts.add(maxSalaries[slot], delta);
+        }
+
+        boolean appendIfLatest(long jobId, int postDay, long cityId, long companyId, double minSalary, double maxSalary, byte workType) {
+            if (size > 0 && compare(postDay, jobId, postDays[size - 1], jobIds[size - 1]) <= 0) {
+                return false;
+            }
+            append(jobId, postDay, cityId, companyId, minSalary, maxSalary, workType);
+            return true;
+        }
+
+        void deactivate(long jobId) {
+            // Deactivations are rare, so a scan from the newest slot is cheaper than a jobId index
+            for (int slot = size - 1; slot >= 0; slot--) {
+                if (jobIds[slot] == jobId) {
+                    if (active.get(slot)) {
+                        active.clear(slot);
+                        countActive(slot, -1);
+                    }
+                    return;
+                }
+            }
+        }
+
+        // First slot ordered after (postDay, jobId); searches continue strictly below it
+        int slotAfter(int postDay, long jobId) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(postDays[mid], jobIds[mid], postDay, jobId) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Drives the scan from the shortest posting list among the requested filters
+        SlotIterator slots(Long cityId, Long companyId, String workType, int bound) {
+            SlotList driver = null;
+            if (cityId != null) {
+                driver = shorter(driver, byCity.get(cityId));
+            }
+            if (companyId != null) {
+                driver = shorter(driver, byCompany.get(companyId));
+            }
+            if (workType != null) {
+                byte code = workTypeCode(workType);
+                driver = shorter(driver, code >= 0 ? byWorkType[code] : null);
+            }
+
+            if (cityId == null && companyId == null && workType == null) {
+                int[] position = {bound};
+                return () -> {
+                    if (position[0] <= 0) {
+                        return -1;
+                    }
+                    position[0] = active.previousSetBit(position[0] - 1);
+                    return position[0];
+                };
+            }
+            if (driver == null) {
+                return () -> -1;
+            }
+            SlotList list = driver;
+            int[] index = {list.lastIndexBelow(bound)};
+            return () -> index[0] >= 0 ? list.slots[index[0]--] : -1;
+        }
+
+        private static SlotList shorter(SlotList current, SlotList candidate) {
+            if (candidate == null) {
+                return EMPTY;
+            }
+            return current == null || candidate.size < current.size ? candidate : current;
+        }
+
+        boolean matches(int slot, Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType,
+                        LongPredicate excluded) {
+            if (!active.get(slot)) {
+                return false;
+            }
+            if (cityId != null && cityIds[slot] != cityId) {
+                return false;
+            }
+            if (companyId != null && companyIds[slot] != companyId) {
+                return false;
+            }
+            if (minSalary != null && !(minSalaries[slot] >= minSalary)) {
+                return false;
+            }
+            if (maxSalary != null && !(maxSalaries[slot] <= maxSalary)) {
+                return false;
+            }
+            if (workType != null && workTypes[slot] != workTypeCode(workType)) {
+                return false;
+            }
+            return excluded == null || !excluded.test(jobIds[slot]);
+        }
+
+        private void grow() {
+            int capacity = jobIds.length + (jobIds.length >> 1) + 1;
+            jobIds = Arrays.copyOf(jobIds, capacity);
+            postDays = Arrays.copyOf(postDays, capacity);
+            cityIds = Arrays.copyOf(cityIds, capacity);
+            companyIds = Arrays.copyOf(companyIds, capacity);
+            minSalaries = Arrays.copyOf(minSalaries, capacity);
+            maxSalaries = Arrays.copyOf(maxSalaries, capacity);
+            workTypes = Arrays.copyOf(workTypes, capacity);
+        }
+
+        private static int compare(int postDayA, long jobIdA, int postDayB, long jobIdB) {
+            return postDayA != postDayB ? Integer.compare(postDayA, postDayB) : Long.compare(jobIdA, jobIdB);
+        }
+
+        private static final SlotList EMPTY = new SlotList();
+    }
+}
@@ -0,0 +1,285 @@
+package components.events;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import data.ApplicationStatusEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Server-sent event subscriptions of employees waiting for application status changes.
+// An idle subscriber is only its SseEmitter and the container's async request, with no thread attached.
+// Every subscriber has its own small queue of pending events, drained by a sender thread one subscriber at a time.
+// SseEmitter writes block, and a write to a client that stopped reading cannot be interrupted (complete() waits for
+// the send to finish), so the pool grows instead: a stalled write pins only its own thread until the container's
+// socket write timeout (server.tomcat.connection-timeout) fails it, and other subscribers get other threads.
+// A subscriber whose queue fills up, or whose write has been blocked longer than the write timeout, is dropped and
+// reconnects by itself.
+@Component
+public class ApplicationStatusEvents implements MeterBinder {
+    @Value("${foundry.application-events.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${foundry.application-events.max-subscriptions-per-employee:4}")
+    private int maxSubscriptionsPerEmployee;
+
+    // Clients reconnect on their own once a stream times out
+    @Value("${foundry.application-events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // Sender threads kept while idle; more are started while writes are blocked
+    @Value("${foundry.application-events.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${foundry.application-events.max-pending-events:32}")
+    private int maxPendingEvents;
+
+    @Value("${foundry.application-events.write-timeout-ms:10000}")
+    private long writeTimeoutMs;
+
+    private final Map<Long, List<Subscriber>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private ThreadPoolExecutor sender;
+
+    @PostConstruct
+    public void start() {
+        // Hands every drain to an idle thread or a new one, never to a queue behind a blocked write. At most one drain
+        // per subscriber runs, so open subscribers bound the threads; dropped ones hold theirs only until the
+        // container fails the blocked write.
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, Math.max(senderThreads, maxSubscribers), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), task -> {
+                Thread thread = new Thread(task, "application-events-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+        for (List<Subscriber> list : subscriptions.values()) {
+            for (Subscriber subscriber : list) {
+                try {
+                    subscriber.emitter.complete();
+                } catch (Exception e) {
+                    // The server may already have closed the connection
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("foundry.application.events.subscribers", subscribers, AtomicInteger::get)
+            .register(registry);
+        FunctionCounter.builder("foundry.application.events.sent", sent, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("foundry.application.events.dropped", dropped, LongAdder::sum)
+            .register(registry);
+        Gauge.builder("foundry.application.events.sender.threads", this, events -> events.sender.getActiveCount())
+            .description("Sender threads writing, including those blocked on clients that stopped reading")
+            .register(registry);
+        FunctionCounter.builder("foundry.application.events.slow", slow, LongAdder::sum)
+            .description("Subscribers dropped because they did not keep up")
+            .register(registry);
+    }
+
+    // The oldest subscription of the employee is closed once they hold more than the per-employee limit
+    public SseEmitter subscribe(long employeeId) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new RejectedExecutionException("Too many subscribers, please try again");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(employeeId, emitter, maxPendingEvents);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        List<Subscriber> evicted = new ArrayList<>();
+        subscriptions.compute(employeeId, (id, list) -> {
+            List<Subscriber> updated = list != null ? list : new CopyOnWriteArrayList<>();
+            updated.add(subscriber);
+            while (updated.size() > maxSubscriptionsPerEmployee) {
+                evicted.add(updated.remove(0));
+                subscribers.decrementAndGet();
+            }
+            return updated;
+        });
+        // Outside compute: completion callbacks update the map again
+        for (Subscriber old : evicted) {
+            close(old);
+        }
+        // Written as soon as the stream opens, so clients see the connection established before the first event
+        enqueue(subscriber, SseEmitter.event().comment("subscribed"), false);
+        return emitter;
+    }
+
+    // Called after the status changes are committed; only queues the events, the senders write them
+    public void publish(List<ApplicationStatusEvent> events) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        for (ApplicationStatusEvent event : events) {
+            List<Subscriber> list = subscriptions.get(event.getEmployeeId());
+            if (list == null) {
+                continue;
+            }
+            for (Subscriber subscriber : list) {
+                if (!enqueue(subscriber, SseEmitter.event().name("status").data(event, MediaType.APPLICATION_JSON), true)) {
+                    // Clients still see the change when they next load their applications
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    // A comment line every interval keeps proxies from closing idle streams and finds clients that went away
+    // or stopped reading
+    @Scheduled(fixedDelayString = "${foundry.application-events.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        for (List<Subscriber> list : subscriptions.values()) {
+            for (Subscriber subscriber : list) {
+                enqueue(subscriber, SseEmitter.event().comment("heartbeat"), false);
+            }
+        }
+    }
+
+    // false when the subscriber is gone or was dropped for being slow
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event, boolean status) {
+        if (subscriber.closed) {
+            return false;
+        }
+        long startedAt = subscriber.writeStartedAt;
+        boolean stalled = startedAt != 0 && System.nanoTime() - startedAt > TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        if (stalled || !subscriber.pending.offer(new Outgoing(event, status))) {
+            slow.increment();
+            unsubscribe(subscriber);
+            close(subscriber);
+            return false;
+        }
+        schedule(subscriber);
+        return true;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down, or every thread is blocked; the next event or heartbeat schedules it again
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    // Runs on a sender thread, never on two at once for the same subscriber
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing next;
+            while (!subscriber.closed && (next = subscriber.pending.poll()) != null) {
+                subscriber.writeStartedAt = System.nanoTime();
+                try {
+                    subscriber.emitter.send(next.event);
+                    if (next.status) {
+                        sent.increment();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client went away; the container completes the emitter with the error
+                    unsubscribe(subscriber);
+                    return;
+                } finally {
+                    subscriber.writeStartedAt = 0;
+                }
+            }
+            if (subscriber.closed) {
+                // Completed here rather than by the thread that closed it: SseEmitter serializes complete() with a
+                // send() that may still be blocked
+                try {
+                    subscriber.emitter.complete();
+                } catch (Exception e) {
+                    // The server may already have closed the connection
+                }
+            }
+        } finally {
+            subscriber.scheduled.set(false);
+            // Something was queued after the last poll
+            if (!subscriber.pending.isEmpty() && !subscriber.closed) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    // Ends the stream once the sender is done with it; the client reconnects and reloads its applications
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.pending.clear();
+        schedule(subscriber);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.pending.clear();
+        subscriptions.computeIfPresent(subscriber.employeeId, (id, list) -> {
+            if (list.remove(subscriber)) {
+                subscribers.decrementAndGet();
+            }
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static class Subscriber {
+        final long employeeId;
+        final SseEmitter emitter;
+        final BlockingQueue<Outgoing> pending;
+        // Set while a drain is queued or running
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        // System.nanoTime() when the current write started, 0 between writes
+        volatile long writeStartedAt;
+        volatile boolean closed;
+
+        Subscriber(long employeeId, SseEmitter emitter, int maxPendingEvents) {
+            this.employeeId = employeeId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(maxPendingEvents);
+        }
+    }
+
+    private static class Outgoing {
+        final SseEmitter.SseEventBuilder event;
+        // Status events count towards foundry.application.events.sent; comments do not
+        final boolean status;
+
+        Outgoing(SseEmitter.SseEventBuilder event, boolean status) {
+            this.event = event;
+            this.status = status;
+        }
+    }
+}
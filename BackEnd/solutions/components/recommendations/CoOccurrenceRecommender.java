@@ -0,0 +1,481 @@
+package components.recommendations;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import config.QueryMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// "People who applied also applied": item-item co-occurrence over applications and shortlists.
+// A background refresh reads only rows added since the last one (by rowid) and re-ranks the jobs they touch;
+// requests walk a precomputed neighbour list and skip jobs the user applied to or disliked.
+@Component
+public class CoOccurrenceRecommender {
+    // Interaction weights; a job both shortlisted and applied to weighs 3
+    private static final int SHORTLIST = 1;
+    private static final int APPLY = 2;
+    private static final int DISLIKE = 0;
+
+    // Table and the weight its rows carry, in the order of Model.lastRowid
+    private static final String[] TABLES = {"Applications", "Shortlist", "Dislike"};
+    private static final int[] WEIGHTS = {APPLY, SHORTLIST, DISLIKE};
+
+    // Per-row fingerprint, kept below 2^30 so that summing it over a table cannot overflow
+    private static final long FINGERPRINT_MULTIPLIER = 1000003;
+    private static final long FINGERPRINT_MODULUS = 1000000007;
+
+    // Jobs scored per fork-join leaf
+    private static final int PARTITION_SIZE = 256;
+
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Value("${foundry.recommendations.cf.enabled:true}")
+    private boolean enabled;
+
+    // Neighbours kept per job; requests that skip more than this many return fewer results
+    @Value("${foundry.recommendations.cf.neighbors:50}")
+    private int neighbors;
+
+    // Only touched by refresh, which is synchronized
+    private Model model;
+    private volatile Snapshot snapshot;
+
+    // Whether mode=cf can be answered; callers fall back to industry recommendations otherwise
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    @Scheduled(fixedDelayString = "${foundry.recommendations.cf.refresh-interval-ms:10000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (model == null || !refreshFromNewRows()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            System.err.println("Error refreshing co-occurrence recommendations: " + e.getMessage());
+            model = null;
+        }
+    }
+
+    // Start over from the full tables, e.g. after data was changed outside the application
+    public synchronized void reload() {
+        model = null;
+        refresh();
+    }
+
+    // Neighbours of the job by co-occurrence score, highest first, without the user's applied and disliked jobs
+    // and without inactive jobs; null when not loaded
+    public long[] recommend(long jobId, Long userId, int limit) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        int jobSlot = current.jobSlots.get(jobId, -1);
+        if (jobSlot < 0) {
+            return new long[0];
+        }
+        int userSlot = userId != null ? current.userSlots.get(userId, -1) : -1;
+        long[] excluded = userSlot >= 0 ? current.excluded[userSlot] : null;
+
+        long[] candidates = current.neighborIds[jobSlot];
+        long[] result = new long[Math.max(limit, 0)];
+        int found = 0;
+        for (int i = 0; i < candidates.length && found < result.length; i++) {
+            long candidate = candidates[i];
+            if (Arrays.binarySearch(current.inactive, candidate) < 0
+                && (excluded == null || Arrays.binarySearch(excluded, candidate) < 0)) {
+                result[found++] = candidate;
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    private void rebuild() {
+        Model rebuilt = new Model();
+        for (int table = 0; table < TABLES.length; table++) {
+            readRows(rebuilt, table);
+        }
+        if (!tablesMatch(rebuilt)) {
+            // Rows changed while reading; the next refresh starts over
+            throw new IllegalStateException("Interaction tables changed during the rebuild");
+        }
+        int[] allJobs = new int[rebuilt.jobCount];
+        for (int slot = 0; slot < allJobs.length; slot++) {
+            allJobs[slot] = slot;
+        }
+        int[] allUsers = new int[rebuilt.userCount];
+        for (int slot = 0; slot < allUsers.length; slot++) {
+            allUsers[slot] = slot;
+        }
+        rebuilt.rank(allJobs, neighbors);
+        rebuilt.updateExcluded(allUsers);
+        model = rebuilt;
+        snapshot = rebuilt.snapshot(loadInactiveJobs());
+    }
+
+    // Apply rows added since the last refresh; false when rows were deleted and a rebuild is needed
+    private boolean refreshFromNewRows() {
+        model.touchedJobs.clear();
+        model.touchedUsers.clear();
+        for (int table = 0; table < TABLES.length; table++) {
+            readRows(model, table);
+        }
+        // Unshortlist and undislike delete rows, which a rowid scan cannot see. Deleting the newest row lets
+        // SQLite hand its rowid to the next insert, which the scan then skips too; the count stays the same
+        // then, but the fingerprint of the table's rows does not
+        if (!tablesMatch(model)) {
+            return false;
+        }
+
+        long[] inactive = loadInactiveJobs();
+        if (model.touchedJobs.size() == 0 && model.touchedUsers.size() == 0
+            && Arrays.equals(inactive, snapshot.inactive)) {
+            return true;
+        }
+        model.rank(model.drainTouchedJobs(), neighbors);
+        model.updateExcluded(model.drainTouchedUsers());
+        snapshot = model.snapshot(inactive);
+        return true;
+    }
+
+    private void readRows(Model target, int table) {
+        String sql = "SELECT rowid, EmployeeId, JobId FROM " + TABLES[table] + " WHERE rowid > ? ORDER BY rowid";
+        int weight = WEIGHTS[table];
+        queryMetrics.record("recommendations.cf.rows", () -> {
+            readJdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                target.lastRowid[table] = rs.getLong(1);
+                target.rowCount[table]++;
+                target.fingerprint[table] += fingerprint(rs.getLong(2), rs.getLong(3));
+                target.add(rs.getLong(2), rs.getLong(3), weight);
+            }, target.lastRowid[table]);
+            return null;
+        });
+    }
+
+    // Whether the rows read so far are exactly the rows in the tables, by count and fingerprint
+    private boolean tablesMatch(Model target) {
+        for (int table = 0; table < TABLES.length; table++) {
+            String sql = "SELECT COUNT(*), COALESCE(SUM((EmployeeId * " + FINGERPRINT_MULTIPLIER + " + JobId) % "
+                + FINGERPRINT_MODULUS + "), 0) FROM " + TABLES[table];
+            long[] counts = queryMetrics.record("recommendations.cf.count",
+                () -> readJdbcTemplate.queryForObject(sql, (rs, row) -> new long[] {rs.getLong(1), rs.getLong(2)}));
+            if (counts[0] != target.rowCount[table] || counts[1] != target.fingerprint[table]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same expression as the SUM in tablesMatch; ids are positive, so Java's % agrees with SQLite's
+    private static long fingerprint(long employeeId, long jobId) {
+        return (employeeId * FINGERPRINT_MULTIPLIER + jobId) % FINGERPRINT_MODULUS;
+    }
+
+    private long[] loadInactiveJobs() {
+        List<Long> ids = queryMetrics.record("recommendations.cf.inactive", () -> readJdbcTemplate.queryForList(
+            "SELECT JobId FROM JobPostings WHERE IsActive = 0 ORDER BY JobId", Long.class));
+        long[] inactive = new long[ids.size()];
+        for (int i = 0; i < inactive.length; i++) {
+            inactive[i] = ids.get(i);
+        }
+        return inactive;
+    }
+
+    // What requests read; replaced as a whole on every refresh that changes something
+    private static class Snapshot {
+        final LongIntMap jobSlots;
+        final long[][] neighborIds;
+        final LongIntMap userSlots;
+        // Sorted applied and disliked job ids per user slot
+        final long[][] excluded;
+        // Sorted ids of closed jobs
+        final long[] inactive;
+
+        Snapshot(LongIntMap jobSlots, long[][] neighborIds, LongIntMap userSlots, long[][] excluded, long[] inactive) {
+            this.jobSlots = jobSlots;
+            this.neighborIds = neighborIds;
+            this.userSlots = userSlots;
+            this.excluded = excluded;
+            this.inactive = inactive;
+        }
+    }
+
+    // Interactions by user and by job, addressed by dense slots so per-job and per-user data live in arrays
+    private static class Model {
+        final long[] lastRowid = new long[TABLES.length];
+        final long[] rowCount = new long[TABLES.length];
+        final long[] fingerprint = new long[TABLES.length];
+
+        final LongIntMap jobSlots = new LongIntMap(1024);
+        long[] jobIds = new long[1024];
+        // User slots that applied to or shortlisted each job
+        int[][] jobUsers = new int[1024][];
+        int[] jobUserCounts = new int[1024];
+        long[][] neighborIds = new long[1024][];
+        int jobCount;
+
+        final LongIntMap userSlots = new LongIntMap(1024);
+        // Per user slot: weight of each applied or shortlisted job, and the disliked jobs
+        LongIntMap[] userItems = new LongIntMap[1024];
+        LongIntMap[] userDisliked = new LongIntMap[1024];
+        long[][] excluded = new long[1024][];
+        int userCount;
+
+        // Changed since the last snapshot; jobs whose neighbour lists must be re-ranked
+        final LongIntMap touchedJobs = new LongIntMap(64);
+        final LongIntMap touchedUsers = new LongIntMap(64);
+
+        void add(long userId, long jobId, int weight) {
+            int user = userSlot(userId);
+            touchedUsers.put(user, 1);
+            if (weight == DISLIKE) {
+                userDisliked[user].put(jobId, 1);
+                return;
+            }
+            int job = jobSlot(jobId);
+            LongIntMap items = userItems[user];
+            int before = items.get(jobId, 0);
+            if ((before | weight) == before) {
+                return;
+            }
+            items.put(jobId, before | weight);
+            if (before == 0) {
+                if (jobUserCounts[job] == jobUsers[job].length) {
+                    jobUsers[job] = Arrays.copyOf(jobUsers[job], jobUsers[job].length * 2);
+                }
+                jobUsers[job][jobUserCounts[job]++] = user;
+            }
+            // The job's own list changes, and so does that of every job the user interacted with
+            items.forEach((other, otherWeight) -> touchedJobs.put(jobSlots.get(other, -1), 1));
+        }
+
+        int[] drainTouchedJobs() {
+            return drain(touchedJobs);
+        }
+
+        int[] drainTouchedUsers() {
+            return drain(touchedUsers);
+        }
+
+        private static int[] drain(LongIntMap touched) {
+            int[] slots = new int[touched.size()];
+            int[] count = {0};
+            touched.forEach((slot, ignored) -> slots[count[0]++] = (int) slot);
+            touched.clear();
+            return slots;
+        }
+
+        // Recompute the neighbour lists of the given jobs, split across the common fork-join pool
+        void rank(int[] jobs, int limit) {
+            if (jobs.length > 0) {
+                ForkJoinPool.commonPool().invoke(new RankTask(this, jobs, 0, jobs.length, limit));
+            }
+        }
+
+        long[] neighborsOf(int job, LongIntMap scores, int limit) {
+            long jobId = jobIds[job];
+            scores.clear();
+            for (int i = 0; i < jobUserCounts[job]; i++) {
+                LongIntMap items = userItems[jobUsers[job][i]];
+                int weight = items.get(jobId, 0);
+                items.forEach((other, otherWeight) -> {
+                    if (other != jobId) {
+                        scores.add(other, weight * otherWeight);
+                    }
+                });
+            }
+            TopScores top = new TopScores(Math.min(limit, scores.size()));
+            scores.forEach(top::offer);
+            return top.idsBestFirst();
+        }
+
+        void updateExcluded(int[] users) {
+            for (int user : users) {
+                List<Long> ids = new ArrayList<>();
+                userItems[user].forEach((jobId, weight) -> {
+                    if ((weight & APPLY) != 0) {
+                        ids.add(jobId);
+                    }
+                });
+                userDisliked[user].forEach((jobId, ignored) -> ids.add(jobId));
+                long[] sorted = new long[ids.size()];
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = ids.get(i);
+                }
+                Arrays.sort(sorted);
+                excluded[user] = sorted;
+            }
+        }
+
+        Snapshot snapshot(long[] inactive) {
+            return new Snapshot(jobSlots.copy(), Arrays.copyOf(neighborIds, jobCount),
+                userSlots.copy(), Arrays.copyOf(excluded, userCount), inactive);
+        }
+
+        private int jobSlot(long jobId) {
+            int slot = jobSlots.get(jobId, -1);
+            if (slot < 0) {
+                slot = jobCount++;
+                if (slot == jobIds.length) {
+                    int capacity = slot * 2;
+                    jobIds = Arrays.copyOf(jobIds, capacity);
+                    jobUsers = Arrays.copyOf(jobUsers, capacity);
+                    jobUserCounts = Arrays.copyOf(jobUserCounts, capacity);
+                    neighborIds = Arrays.copyOf(neighborIds, capacity);
+                }
+                jobIds[slot] = jobId;
+                jobUsers[slot] = new int[4];
+                neighborIds[slot] = new long[0];
+                jobSlots.put(jobId, slot);
+            }
+            return slot;
+        }
+
+        private int userSlot(long userId) {
+            int slot = userSlots.get(userId, -1);
+            if (slot < 0) {
+                slot = userCount++;
+                if (slot == userItems.length) {
+                    int capacity = slot * 2;
+                    userItems = Arrays.copyOf(userItems, capacity);
+                    userDisliked = Arrays.copyOf(userDisliked, capacity);
+                    excluded = Arrays.copyOf(excluded, capacity);
+                }
+                userItems[slot] = new LongIntMap(16);
+                userDisliked[slot] = new LongIntMap(4);
+                excluded[slot] = new long[0];
+                userSlots.put(userId, slot);
+            }
+            return slot;
+        }
+    }
+
+    // Each leaf scores its share of jobs with its own scratch map; leaves write disjoint neighborIds entries
+    private static class RankTask extends RecursiveAction {
+        private final Model model;
+        private final int[] jobs;
+        private final int from;
+        private final int to;
+        private final int limit;
+
+        RankTask(Model model, int[] jobs, int from, int to, int limit) {
+            this.model = model;
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                LongIntMap scores = new LongIntMap(256);
+                for (int i = from; i < to; i++) {
+                    model.neighborIds[jobs[i]] = model.neighborsOf(jobs[i], scores, limit);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RankTask(model, jobs, from, middle, limit), new RankTask(model, jobs, middle, to, limit));
+        }
+    }
+
+    // Bounded min-heap keeping the best scores; equal scores prefer the lower job id
+    private static class TopScores {
+        private final long[] ids;
+        private final int[] scores;
+        private int size;
+
+        TopScores(int capacity) {
+            ids = new long[capacity];
+            scores = new int[capacity];
+        }
+
+        void offer(long id, int score) {
+            if (ids.length == 0) {
+                return;
+            }
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (better(id, score, 0)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        long[] idsBestFirst() {
+            long[] result = new long[size];
+            while (size > 0) {
+                result[size - 1] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private boolean better(long id, int score, int at) {
+            return score != scores[at] ? score > scores[at] : id < ids[at];
+        }
+
+        private void siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) >>> 1;
+                if (!better(ids[parent], scores[parent], at)) {
+                    return;
+                }
+                swap(at, parent);
+                at = parent;
+            }
+        }
+
+        private void siftDown(int at) {
+            while (true) {
+                int worst = at;
+                int left = 2 * at + 1;
+                int right = left + 1;
+                if (left < size && !better(ids[left], scores[left], worst)) {
+                    worst = left;
+                }
+                if (right < size && !better(ids[right], scores[right], worst)) {
+                    worst = right;
+                }
+                if (worst == at) {
+                    return;
+                }
+                swap(at, worst);
+                at = worst;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            int score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package components.recommendations;
+
+import java.util.Arrays;
+
+// Open-addressing hash map from long to int without boxing. Keys are ids and never removed.
+final class LongIntMap {
+    // Ids are positive, so this never collides with a real key
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 4) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private LongIntMap(LongIntMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key, int missing) {
+        int at = find(key);
+        return keys[at] == EMPTY ? missing : values[at];
+    }
+
+    void put(long key, int value) {
+        int at = find(key);
+        if (keys[at] == EMPTY) {
+            keys[at] = key;
+            values[at] = value;
+            grown();
+        } else {
+            values[at] = value;
+        }
+    }
+
+    // Add to the value of the key, starting from 0 when it is absent
+    void add(long key, int delta) {
+        int at = find(key);
+        if (keys[at] == EMPTY) {
+            keys[at] = key;
+            values[at] = delta;
+            grown();
+        } else {
+            values[at] += delta;
+        }
+    }
+
+    void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+        }
+    }
+
+    LongIntMap copy() {
+        return new LongIntMap(this);
+    }
+
+    void forEach(Entry action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    interface Entry {
+        void accept(long key, int value);
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int find(long key) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int at = (int) (hash ^ (hash >>> 32)) & mask;
+        while (keys[at] != EMPTY && keys[at] != key) {
+            at = (at + 1) & mask;
+        }
+        return at;
+    }
+
+    // Keep the load factor at or below one half
+    private void grown() {
+        if (++size * 2 <= keys.length) {
+            return;
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int at = find(oldKeys[i]);
+                keys[at] = oldKeys[i];
+                values[at] = oldValues[i];
+            }
+        }
+    }
+}
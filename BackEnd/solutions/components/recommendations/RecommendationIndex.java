@@ -0,0 +1,307 @@
+package components.recommendations;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+
+import config.QueryMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+// Active jobs grouped by the industries of their company. Each industry keeps its top-k jobs ranked by
+// application count, so a recommendation is a walk over a few entries instead of a join and sort over every job.
+@Component
+@DependsOn("schemaMigrations")
+public class RecommendationIndex {
+    private static final String LOAD_SQL =
+        "SELECT j.JobId, j.CompanyId, f.IndustryId, COALESCE(je.ApplyCount, 0) AS ApplyCount " +
+        "FROM JobDetailsView j " +
+        "JOIN FocusOn f ON j.CompanyId = f.CompanyId " +
+        "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
+        "WHERE j.IsActive = 1 ";
+
+    // A company in several industries recommends from its lowest IndustryId, the row the old subquery picked
+    private static final String COMPANY_INDUSTRY_SQL =
+        "SELECT CompanyId, MIN(IndustryId) AS IndustryId FROM FocusOn GROUP BY CompanyId";
+
+    // For jobs that are no longer active and so not in the index
+    private static final String JOB_COMPANY_SQL =
+        "SELECT e.CompanyId FROM JobPostings j JOIN Employers e ON j.EmployerId = e.UserId WHERE j.JobId = ?";
+
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Value("${foundry.recommendations.enabled:true}")
+    private boolean enabled;
+
+    // Ranked jobs kept per industry; lookups that skip more than this many fall back to ranking the whole industry
+    @Value("${foundry.recommendations.top-k:32}")
+    private int topK;
+
+    private volatile Index index;
+
+    @PostConstruct
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Whether recommendations can be answered from memory; callers fall back to SQL otherwise
+    public boolean isReady() {
+        return index != null;
+    }
+
+    public void reload() {
+        try {
+            Index loaded = new Index(topK);
+            queryMetrics.record("recommendations.load", () -> {
+                readJdbcTemplate.query(COMPANY_INDUSTRY_SQL, (RowCallbackHandler) rs -> loaded.firstIndustryByCompany.put(
+                    rs.getLong("CompanyId"), rs.getLong("IndustryId")));
+                readJdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> loaded.add(
+                    rs.getLong("JobId"), rs.getLong("CompanyId"), rs.getLong("IndustryId"), rs.getInt("ApplyCount")));
+                return null;
+            });
+            index = loaded;
+        } catch (Exception e) {
+            System.err.println("Error loading recommendation index: " + e.getMessage());
+            index = null;
+        }
+    }
+
+    // Called after a new posting is committed
+    public void onJobPosted(long jobId) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        List<long[]> rows = queryMetrics.record("recommendations.loadJob", () -> readJdbcTemplate.query(
+            LOAD_SQL + "AND j.JobId = ?", (rs, rowNum) -> new long[] {
+                rs.getLong("CompanyId"), rs.getLong("IndustryId"), rs.getInt("ApplyCount")
+            }, jobId));
+        synchronized (current) {
+            for (long[] row : rows) {
+                current.add(jobId, row[0], row[1], (int) row[2]);
+            }
+        }
+    }
+
+    // Called after an application to the job is committed
+    public void onApplied(long jobId) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            current.incrementApplyCount(jobId);
+        }
+    }
+
+    // Called when a job stops being active, e.g. after auto_withdraw_applications closes it
+    public void onJobDeactivated(long jobId) {
+        Index current = index;
+        if (current == null) {
+            return;
+        }
+        synchronized (current) {
+            current.remove(jobId);
+        }
+    }
+
+    // Most applied-to active jobs in the industry of the given job, ties broken by lower JobId; null when not loaded
+    public long[] recommend(long jobId, LongPredicate excluded, int limit) {
+        Index current = index;
+        if (current == null) {
+            return null;
+        }
+        Long industryId = current.industryOf(jobId);
+        if (industryId == null) {
+            Long companyId = queryMetrics.record("recommendations.jobCompany", () -> readJdbcTemplate.query(
+                JOB_COMPANY_SQL, rs -> rs.next() ? rs.getLong(1) : null, jobId));
+            industryId = companyId != null ? current.firstIndustryByCompany.get(companyId) : null;
+        }
+        if (industryId == null) {
+            return new long[0];
+        }
+        synchronized (current) {
+            Industry industry = current.industries.get(industryId);
+            return industry != null ? industry.recommend(excluded, limit) : new long[0];
+        }
+    }
+
+    private static class Index {
+        final int topK;
+        final Map<Long, Job> jobs = new HashMap<>();
+        final Map<Long, Industry> industries = new HashMap<>();
+        final Map<Long, Long> firstIndustryByCompany = new HashMap<>();
+
+        Index(int topK) {
+            this.topK = topK;
+        }
+
+        void add(long jobId, long companyId, long industryId, int applyCount) {
+            Job job = jobs.get(jobId);
+            if (job == null) {
+                job = new Job(jobId, companyId, applyCount);
+                jobs.put(jobId, job);
+            }
+            if (!job.industries.contains(industryId)) {
+                job.industries.add(industryId);
+                industries.computeIfAbsent(industryId, id -> new Industry(topK)).add(job);
+            }
+        }
+
+        void incrementApplyCount(long jobId) {
+            Job job = jobs.get(jobId);
+            if (job != null) {
+                job.applyCount++;
+                for (Long industryId : job.industries) {
+                    industries.get(industryId).promote(job);
+                }
+            }
+        }
+
+        void remove(long jobId) {
+            Job job = jobs.remove(jobId);
+            if (job != null) {
+                for (Long industryId : job.industries) {
+                    industries.get(industryId).remove(job);
+                }
+            }
+        }
+
+        synchronized Long industryOf(long jobId) {
+            Job job = jobs.get(jobId);
+            return job != null ? firstIndustryByCompany.get(job.companyId) : null;
+        }
+    }
+
+    private static class Job {
+        final long jobId;
+        final long companyId;
+        final List<Long> industries = new ArrayList<>(1);
+        int applyCount;
+
+        Job(long jobId, long companyId, int applyCount) {
+            this.jobId = jobId;
+            this.companyId = companyId;
+            this.applyCount = applyCount;
+        }
+
+        // More applications first, then lower JobId
+        boolean ranksBefore(Job other) {
+            return applyCount != other.applyCount ? applyCount > other.applyCount : jobId < other.jobId;
+        }
+    }
+
+    // Members of one industry and, unless stale, the best topK of them in rank order
+    private static class Industry {
+        final Set<Job> members = new LinkedHashSet<>();
+        final Job[] top;
+        int topSize;
+        // Set when a ranked job leaves, since the replacement can only be found by looking at every member
+        boolean stale;
+
+        Industry(int topK) {
+            top = new Job[Math.max(topK, 1)];
+        }
+
+        void add(Job job) {
+            members.add(job);
+            if (!stale) {
+                offer(job);
+            }
+        }
+
+        // A member's application count went up
+        void promote(Job job) {
+            if (!stale) {
+                offer(job);
+            }
+        }
+
+        void remove(Job job) {
+            members.remove(job);
+            if (!stale && indexOf(job) >= 0) {
+                stale = true;
+            }
+        }
+
+        long[] recommend(LongPredicate excluded, int limit) {
+            if (stale) {
+                rebuild();
+            }
+            long[] result = new long[Math.max(limit, 0)];
+            int found = collect(top, topSize, excluded, result);
+            // Everything ranked was excluded; rank the rest of the industry on the spot
+            if (found < result.length && members.size() > topSize) {
+                Job[] all = members.toArray(new Job[0]);
+                Arrays.sort(all, (a, b) -> a == b ? 0 : a.ranksBefore(b) ? -1 : 1);
+                found = collect(all, all.length, excluded, result);
+            }
+            return found == result.length ? result : Arrays.copyOf(result, found);
+        }
+
+        private static int collect(Job[] ranked, int size, LongPredicate excluded, long[] into) {
+            int found = 0;
+            for (int i = 0; i < size && found < into.length; i++) {
+                if (excluded == null || !excluded.test(ranked[i].jobId)) {
+                    into[found++] = ranked[i].jobId;
+                }
+            }
+            return found;
+        }
+
+        // Insert or move the job within the ranked prefix, keeping it sorted and at most top.length long
+        private void offer(Job job) {
+            int at = indexOf(job);
+            if (at < 0) {
+                if (topSize == top.length) {
+                    if (!job.ranksBefore(top[topSize - 1])) {
+                        return;
+                    }
+                    topSize--;
+                }
+                at = topSize++;
+                top[at] = job;
+            }
+            while (at > 0 && job.ranksBefore(top[at - 1])) {
+                top[at] = top[at - 1];
+                top[--at] = job;
+            }
+        }
+
+        private int indexOf(Job job) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == job) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void rebuild() {
+            Arrays.fill(top, null);
+            topSize = 0;
+            stale = false;
+            for (Job job : members) {
+                offer(job);
+            }
+        }
+    }
+}
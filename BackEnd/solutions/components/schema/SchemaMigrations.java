@@ -0,0 +1,247 @@
+package components.schema;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// Views, triggers, indexes and derived tables the application adds on top of createtables.sql.
+// Each migration runs once, in its own transaction, and is recorded in schema_version; objects are kept across
+// restarts, so startup only checks the version. Change an existing object by adding a migration, never by editing one.
+@Component
+public class SchemaMigrations {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+        new Migration(1, "JobDetailsView and auto_withdraw_applications trigger",
+            "DROP VIEW IF EXISTS JobDetailsView",
+            "CREATE VIEW JobDetailsView AS " +
+            "SELECT j.*, c.CompanyName, ci.CityName, co.CountryName, c.CompanyId " +
+            "FROM JobPostings j " +
+            "JOIN Employers e ON j.EmployerId = e.UserId " +
+            "JOIN Companies c ON e.CompanyId = c.CompanyId " +
+            "JOIN Cities ci ON j.CityId = ci.CityId " +
+            "JOIN Countries co ON ci.CountryId = co.CountryId",
+            // Accepting an application withdraws the others and closes the job
+            "DROP TRIGGER IF EXISTS auto_withdraw_applications",
+            "CREATE TRIGGER auto_withdraw_applications " +
+            "AFTER UPDATE ON Applications " +
+            "WHEN NEW.Status = 'Accepted' AND OLD.Status != 'Accepted' " +
+            "BEGIN " +
+            "    UPDATE Applications " +
+            "    SET Status = 'Withdrawn' " +
+            "    WHERE JobId = NEW.JobId " +
+            "    AND EmployeeId != NEW.EmployeeId " +
+            "    AND Status != 'Withdrawn' " +
+            "    AND Status != 'Accepted'; " +
+            "    UPDATE JobPostings " +
+            "    SET IsActive = 0 " +
+            "    WHERE JobId = NEW.JobId; " +
+            "END"),
+
+        // Per-job apply/dislike/shortlist counters kept by triggers, so readers never re-aggregate
+        new Migration(2, "JobEngagement counters",
+            "CREATE TABLE IF NOT EXISTS JobEngagement ( " +
+            "    JobId INTEGER PRIMARY KEY, " +
+            "    ApplyCount INTEGER NOT NULL DEFAULT 0, " +
+            "    DislikeCount INTEGER NOT NULL DEFAULT 0, " +
+            "    ShortlistCount INTEGER NOT NULL DEFAULT 0, " +
+            "    FOREIGN KEY (JobId) REFERENCES JobPostings(JobId) " +
+            ")",
+            "DROP TRIGGER IF EXISTS engagement_job_insert",
+            "CREATE TRIGGER engagement_job_insert " +
+            "AFTER INSERT ON JobPostings " +
+            "BEGIN " +
+            "    INSERT OR IGNORE INTO JobEngagement (JobId) VALUES (NEW.JobId); " +
+            "END",
+            "DROP TRIGGER IF EXISTS engagement_apply_insert",
+            counterTrigger("Applications", "ApplyCount", "engagement_apply", true),
+            "DROP TRIGGER IF EXISTS engagement_apply_delete",
+            counterTrigger("Applications", "ApplyCount", "engagement_apply", false),
+            "DROP TRIGGER IF EXISTS engagement_dislike_insert",
+            counterTrigger("Dislike", "DislikeCount", "engagement_dislike", true),
+            "DROP TRIGGER IF EXISTS engagement_dislike_delete",
+            counterTrigger("Dislike", "DislikeCount", "engagement_dislike", false),
+            "DROP TRIGGER IF EXISTS engagement_shortlist_insert",
+            counterTrigger("Shortlist", "ShortlistCount", "engagement_shortlist", true),
+            "DROP TRIGGER IF EXISTS engagement_shortlist_delete",
+            counterTrigger("Shortlist", "ShortlistCount", "engagement_shortlist", false),
+            // Earlier versions dropped the triggers on shutdown, so counters are recomputed once from the rows
+            "WITH application_count AS ( " +
+            "    SELECT JobId, COUNT(*) AS apply_count FROM Applications GROUP BY JobId " +
+            "), " +
+            "dislike_count AS ( " +
+            "    SELECT JobId, COUNT(*) AS dislike_count FROM Dislike GROUP BY JobId " +
+            "), " +
+            "shortlist_count AS ( " +
+            "    SELECT JobId, COUNT(*) AS shortlist_count FROM Shortlist GROUP BY JobId " +
+            ") " +
+            "INSERT OR REPLACE INTO JobEngagement (JobId, ApplyCount, DislikeCount, ShortlistCount) " +
+            "SELECT j.JobId, " +
+            "       COALESCE(ac.apply_count, 0), " +
+            "       COALESCE(dc.dislike_count, 0), " +
+            "       COALESCE(sc.shortlist_count, 0) " +
+            "FROM JobPostings j " +
+            "LEFT JOIN application_count ac ON j.JobId = ac.JobId " +
+            "LEFT JOIN dislike_count dc ON j.JobId = dc.JobId " +
+            "LEFT JOIN shortlist_count sc ON j.JobId = sc.JobId"),
+
+        // Full-text index over JobPostings.Title and Description used by keyword search.
+        // External content table: the text itself stays in JobPostings, only the index is stored.
+        new Migration(3, "JobPostingsFts full-text index",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS JobPostingsFts USING fts5( " +
+            "    Title, Description, " +
+            "    content = 'JobPostings', content_rowid = 'JobId', " +
+            "    tokenize = 'porter unicode61' " +
+            ")",
+            "DROP TRIGGER IF EXISTS job_fts_insert",
+            "CREATE TRIGGER job_fts_insert " +
+            "AFTER INSERT ON JobPostings " +
+            "BEGIN " +
+            "    INSERT INTO JobPostingsFts (rowid, Title, Description) " +
+            "    VALUES (NEW.JobId, NEW.Title, NEW.Description); " +
+            "END",
+            "DROP TRIGGER IF EXISTS job_fts_delete",
+            "CREATE TRIGGER job_fts_delete " +
+            "AFTER DELETE ON JobPostings " +
+            "BEGIN " +
+            "    INSERT INTO JobPostingsFts (JobPostingsFts, rowid, Title, Description) " +
+            "    VALUES ('delete', OLD.JobId, OLD.Title, OLD.Description); " +
+            "END",
+            // Only text changes touch the index; IsActive updates from auto_withdraw_applications do not
+            "DROP TRIGGER IF EXISTS job_fts_update",
+            "CREATE TRIGGER job_fts_update " +
+            "AFTER UPDATE OF Title, Description ON JobPostings " +
+            "BEGIN " +
+            "    INSERT INTO JobPostingsFts (JobPostingsFts, rowid, Title, Description) " +
+            "    VALUES ('delete', OLD.JobId, OLD.Title, OLD.Description); " +
+            "    INSERT INTO JobPostingsFts (rowid, Title, Description) " +
+            "    VALUES (NEW.JobId, NEW.Title, NEW.Description); " +
+            "END",
+            "INSERT INTO JobPostingsFts (JobPostingsFts) VALUES ('rebuild')"),
+
+        new Migration(4, "JobAverageStats and ShortlistApplicationRatio views",
+            "DROP VIEW IF EXISTS JobAverageStats",
+            "CREATE VIEW JobAverageStats AS " +
+            "SELECT " +
+            "    j.*, " +
+            "    COALESCE(je.ApplyCount, 0) AS ApplyCount, " +
+            "    COALESCE(je.DislikeCount, 0) AS DislikeCount, " +
+            "    COALESCE(je.ShortlistCount, 0) AS ShortlistCount " +
+            "FROM JobDetailsView j " +
+            "LEFT JOIN JobEngagement je ON j.JobId = je.JobId",
+            "DROP VIEW IF EXISTS ShortlistApplicationRatio",
+            "CREATE VIEW ShortlistApplicationRatio AS " +
+            "SELECT " +
+            "    jp.JobId, " +
+            "    jp.Title AS JobTitle, " +
+            "    COALESCE(je.ShortlistCount, 0) AS TotalSL, " +
+            "    COALESCE(je.ApplyCount, 0) AS TotalApp, " +
+            "    CASE " +
+            "        WHEN COALESCE(je.ApplyCount, 0) = 0 THEN NULL " +
+            "        ELSE CAST(je.ShortlistCount AS REAL) / je.ApplyCount " +
+            "    END AS ShortlistToApplicationRatio " +
+            "FROM JobPostings jp " +
+            "LEFT JOIN JobEngagement je ON jp.JobId = je.JobId"),
+
+        // All six are also in Database/proddb/createtables.sql. Databases created from an older copy of it, or from
+        // Database/testdb/createtables.sql, which has no indexes, get them here.
+        // idxApplicationsByJobStatus leads with JobId, so it also serves lookups of Applications by job.
+        new Migration(5, "Indexes for job search, the applications feed and per-job lookups",
+            "CREATE INDEX IF NOT EXISTS idxOnEmployerJobs ON JobPostings(EmployerId)",
+            // Covers the IsActive filter and the (PostDate DESC, JobId DESC) seek used by job search paging
+            "CREATE INDEX IF NOT EXISTS idxActiveJobsByPostDate ON JobPostings(IsActive, PostDate, JobId)",
+            // Employer applications feed: per job, filtered by status and paged in (ApplyDate, EmployeeId) order
+            "CREATE INDEX IF NOT EXISTS idxApplicationsByJobStatus ON Applications(JobId, Status, ApplyDate, EmployeeId)",
+            // The primary keys lead with EmployeeId; these serve per-job lookups and foreign key checks on job deletes
+            "CREATE INDEX IF NOT EXISTS idxDislikeByJob ON Dislike(JobId)",
+            "CREATE INDEX IF NOT EXISTS idxShortlistByJob ON Shortlist(JobId)",
+            "CREATE INDEX IF NOT EXISTS idxJobsByCity ON JobPostings(CityId)")
+    ));
+
+    @PostConstruct
+    public void migrate() {
+        jdbcTemplate.execute(
+            "CREATE TABLE IF NOT EXISTS schema_version ( " +
+            "    Version INTEGER PRIMARY KEY, " +
+            "    Description TEXT NOT NULL, " +
+            "    AppliedAt TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP " +
+            ")");
+        Integer current = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(Version), 0) FROM schema_version", Integer.class);
+
+        int applied = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version > current) {
+                apply(migration);
+                applied++;
+            }
+        }
+
+        if (applied > 0) {
+            // New indexes have no statistics yet; without them the planner may prefer the wrong one
+            jdbcTemplate.execute("ANALYZE");
+            System.out.println("Applied " + applied + " schema migration(s), now at version " + MIGRATIONS.get(MIGRATIONS.size() - 1).version);
+        } else {
+            optimize();
+        }
+    }
+
+    // SQLite recommends this before closing a long-lived connection; it only re-analyzes tables whose statistics went stale
+    @PreDestroy
+    public void optimize() {
+        try {
+            jdbcTemplate.execute("PRAGMA optimize");
+        } catch (Exception e) {
+            System.err.println("Error running PRAGMA optimize: " + e.getMessage());
+        }
+    }
+
+    // A failed migration is rolled back and stops startup; the application's queries need every object
+    private void apply(Migration migration) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (String statement : migration.statements) {
+                    jdbcTemplate.execute(statement);
+                }
+                jdbcTemplate.update("INSERT INTO schema_version (Version, Description) VALUES (?, ?)",
+                    migration.version, migration.description);
+            });
+        } catch (RuntimeException e) {
+            System.err.println("Error applying schema migration " + migration.version + " (" + migration.description + "): " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static String counterTrigger(String table, String counter, String triggerPrefix, boolean insert) {
+        String trigger = triggerPrefix + (insert ? "_insert" : "_delete");
+        String body = insert
+            ? "    INSERT OR IGNORE INTO JobEngagement (JobId) VALUES (NEW.JobId); " +
+              "    UPDATE JobEngagement SET " + counter + " = " + counter + " + 1 WHERE JobId = NEW.JobId; "
+            : "    UPDATE JobEngagement SET " + counter + " = " + counter + " - 1 WHERE JobId = OLD.JobId; ";
+        return "CREATE TRIGGER " + trigger + " " +
+            "AFTER " + (insert ? "INSERT" : "DELETE") + " ON " + table + " " +
+            "BEGIN " + body + "END";
+    }
+
+    private static class Migration {
+        final int version;
+        final String description;
+        final List<String> statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = new ArrayList<>(Arrays.asList(statements));
+        }
+    }
+}
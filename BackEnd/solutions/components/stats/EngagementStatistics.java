@@ -0,0 +1,249 @@
+package components.stats;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+
+import config.QueryMetrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-city and per-company apply/dislike/shortlist statistics computed from one scan of JobAverageStats.
+// Produces the same numbers as AVG(...) and the NTILE(10) top bucket over the view, without re-evaluating it per request.
+@Component
+@DependsOn("schemaMigrations")
+public class EngagementStatistics {
+    private static final String LOAD_SQL =
+        "SELECT CityId, CompanyId, ApplyCount, DislikeCount, ShortlistCount FROM JobAverageStats";
+
+    // Companies sharing at least one industry, including the company itself
+    private static final String FOCUS_SQL =
+        "SELECT f.CompanyId, f.IndustryId " +
+        "FROM FocusOn f " +
+        "JOIN Companies c ON f.CompanyId = c.CompanyId";
+
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    @Value("${foundry.stats.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void load() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Whether statistics can be answered from memory; callers fall back to SQL otherwise
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    // Called after any write that changes engagement counters or the set of jobs
+    public void markDirty() {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${foundry.stats.refresh-interval-ms:5000}")
+    public void refreshIfDirty() {
+        if (enabled && dirty.compareAndSet(true, false)) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        try {
+            Snapshot loaded = new Snapshot();
+            queryMetrics.record("stats.load", () -> {
+                readJdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> loaded.add(
+                    rs.getLong("CityId"), rs.getLong("CompanyId"),
+                    rs.getLong("ApplyCount"), rs.getLong("DislikeCount"), rs.getLong("ShortlistCount")));
+                readJdbcTemplate.query(FOCUS_SQL, (RowCallbackHandler) rs -> loaded.addFocus(
+                    rs.getLong("CompanyId"), rs.getLong("IndustryId")));
+                return null;
+            });
+            snapshot = loaded;
+        } catch (Exception e) {
+            // Keep serving the previous snapshot, which is only as stale as a skipped refresh, and retry on the next one
+            System.err.println("Error loading engagement statistics: " + e.getMessage());
+            markDirty();
+        }
+    }
+
+    // Same shape as the averages and top 10 percent rows of the SQL version; null when nothing was ever loaded
+    public Map<String, Object> getLocationStats(Long cityId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        Counters counters = current.byCity.get(cityId);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("averages", averages(counters));
+        result.put("top_10_percent", topDecile(counters));
+        return result;
+    }
+
+    // null when nothing was ever loaded
+    public Map<String, Object> getCompanyStats(Long companyId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        Map<String, Object> industryTop = current.industryTopByCompany.get(companyId);
+        if (industryTop == null) {
+            industryTop = topDecile(current.sameFocusCounters(companyId));
+            current.industryTopByCompany.put(companyId, industryTop);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("company_averages", averages(current.byCompany.get(companyId)));
+        result.put("industry_top_10_percent", industryTop);
+        return result;
+    }
+
+    private static Map<String, Object> averages(Counters counters) {
+        Map<String, Object> averages = new LinkedHashMap<>();
+        averages.put("avg_apply", counters == null ? null : counters.apply.average());
+        averages.put("avg_dislike", counters == null ? null : counters.dislike.average());
+        averages.put("avg_shortlist", counters == null ? null : counters.shortlist.average());
+        return averages;
+    }
+
+    private static Map<String, Object> topDecile(Counters counters) {
+        Map<String, Object> into = new LinkedHashMap<>();
+        // Apply and shortlist rank highest first; the dislike bucket takes the lowest counts
+        into.put("top_apply", counters == null ? null : counters.apply.topDecileAverage(true));
+        into.put("top_dislike", counters == null ? null : counters.dislike.topDecileAverage(false));
+        into.put("top_shortlist", counters == null ? null : counters.shortlist.topDecileAverage(true));
+        return into;
+    }
+
+    private static class Snapshot {
+        final Map<Long, Counters> byCity = new HashMap<>();
+        final Map<Long, Counters> byCompany = new HashMap<>();
+        final Map<Long, List<Long>> industriesByCompany = new HashMap<>();
+        final Map<Long, List<Long>> companiesByIndustry = new HashMap<>();
+        // Filled lazily; a new snapshot starts empty so entries never outlive the data they came from
+        final Map<Long, Map<String, Object>> industryTopByCompany = new ConcurrentHashMap<>();
+
+        void add(long cityId, long companyId, long apply, long dislike, long shortlist) {
+            byCity.computeIfAbsent(cityId, id -> new Counters()).add(apply, dislike, shortlist);
+            byCompany.computeIfAbsent(companyId, id -> new Counters()).add(apply, dislike, shortlist);
+        }
+
+        void addFocus(long companyId, long industryId) {
+            industriesByCompany.computeIfAbsent(companyId, id -> new ArrayList<>()).add(industryId);
+            companiesByIndustry.computeIfAbsent(industryId, id -> new ArrayList<>()).add(companyId);
+        }
+
+        // Jobs of every company that shares an industry with the given one, each company counted once
+        Counters sameFocusCounters(long companyId) {
+            Set<Long> companies = new HashSet<>();
+            for (Long industryId : industriesByCompany.getOrDefault(companyId, new ArrayList<>())) {
+                companies.addAll(companiesByIndustry.get(industryId));
+            }
+            Counters merged = null;
+            for (Long sameFocus : companies) {
+                Counters counters = byCompany.get(sameFocus);
+                if (counters != null) {
+                    if (merged == null) {
+                        merged = new Counters();
+                    }
+                    merged.addAll(counters);
+                }
+            }
+            return merged;
+        }
+    }
+
+    private static class Counters {
+        final Column apply = new Column();
+        final Column dislike = new Column();
+        final Column shortlist = new Column();
+
+        void add(long applyCount, long dislikeCount, long shortlistCount) {
+            apply.add(applyCount);
+            dislike.add(dislikeCount);
+            shortlist.add(shortlistCount);
+        }
+
+        void addAll(Counters other) {
+            apply.addAll(other.apply);
+            dislike.addAll(other.dislike);
+            shortlist.addAll(other.shortlist);
+        }
+    }
+
+    // One metric for a group of jobs, kept as raw values so the top bucket can be taken on demand
+    private static class Column {
+        long[] values = new long[4];
+        int size;
+        long sum;
+        boolean sorted = true;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            if (size > 0 && value < values[size - 1]) {
+                sorted = false;
+            }
+            values[size++] = value;
+            sum += value;
+        }
+
+        void addAll(Column other) {
+            // The other column may be sorting in place for a concurrent request
+            synchronized (other) {
+                for (int i = 0; i < other.size; i++) {
+                    add(other.values[i]);
+                }
+            }
+        }
+
+        // SQLite sums integer columns exactly and divides once, as done here
+        Double average() {
+            return size == 0 ? null : (double) sum / size;
+        }
+
+        // NTILE(10) puts ceil(n / 10) rows in the first bucket
+        synchronized Double topDecileAverage(boolean highest) {
+            if (size == 0) {
+                return null;
+            }
+            if (!sorted) {
+                Arrays.sort(values, 0, size);
+                sorted = true;
+            }
+            int bucket = (size + 9) / 10;
+            long bucketSum = 0;
+            for (int i = 0; i < bucket; i++) {
+                bucketSum += highest ? values[size - 1 - i] : values[i];
+            }
+            return (double) bucketSum / bucket;
+        }
+    }
+}
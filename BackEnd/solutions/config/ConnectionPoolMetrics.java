@@ -0,0 +1,117 @@
+package config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Collects pool-wait and connection usage numbers reported by HikariCP for each pool.
+// The same numbers are published to the meter registry, since Spring Boot skips pools with their own tracker factory.
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory, MeterBinder {
+    private final Map<String, PoolTracker> trackers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        trackers.put(poolName, tracker);
+        MeterRegistry registry = meterRegistry;
+        if (registry != null) {
+            tracker.bindTo(registry, poolName);
+        }
+        return tracker;
+    }
+
+    // Pools may start before or after the registry is ready, so both paths register meters
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        trackers.forEach((poolName, tracker) -> tracker.bindTo(registry, poolName));
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        trackers.forEach((poolName, tracker) -> result.put(poolName, tracker.snapshot()));
+        return result;
+    }
+
+    private static class PoolTracker implements IMetricsTracker {
+        private final PoolStats poolStats;
+        private final LongAdder acquireCount = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+        private final AtomicLong maxAcquireNanos = new AtomicLong();
+        private final LongAdder usageCount = new LongAdder();
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAdder timeoutCount = new LongAdder();
+
+        PoolTracker(PoolStats poolStats) {
+            this.poolStats = poolStats;
+        }
+
+        // Registering an existing meter again is a no-op, so binding twice is harmless
+        void bindTo(MeterRegistry registry, String poolName) {
+            Gauge.builder("foundry.pool.connections.active", poolStats, PoolStats::getActiveConnections)
+                .tag("pool", poolName).register(registry);
+            Gauge.builder("foundry.pool.connections.idle", poolStats, PoolStats::getIdleConnections)
+                .tag("pool", poolName).register(registry);
+            Gauge.builder("foundry.pool.connections.pending", poolStats, PoolStats::getPendingThreads)
+                .tag("pool", poolName).register(registry);
+            Gauge.builder("foundry.pool.connections.max", poolStats, PoolStats::getMaxConnections)
+                .tag("pool", poolName).register(registry);
+            FunctionCounter.builder("foundry.pool.acquire.count", acquireCount, LongAdder::sum)
+                .tag("pool", poolName).register(registry);
+            FunctionCounter.builder("foundry.pool.acquire.seconds", acquireNanos, nanos -> nanos.sum() / 1e9)
+                .tag("pool", poolName).register(registry);
+            FunctionCounter.builder("foundry.pool.timeouts", timeoutCount, LongAdder::sum)
+                .tag("pool", poolName).register(registry);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireCount.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+            maxAcquireNanos.accumulateAndGet(elapsedAcquiredNanos, Math::max);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageCount.increment();
+            usageMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeoutCount.increment();
+        }
+
+        Map<String, Object> snapshot() {
+            long acquires = acquireCount.sum();
+            long usages = usageCount.sum();
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("activeConnections", poolStats.getActiveConnections());
+            stats.put("idleConnections", poolStats.getIdleConnections());
+            stats.put("totalConnections", poolStats.getTotalConnections());
+            stats.put("maxConnections", poolStats.getMaxConnections());
+            stats.put("threadsAwaitingConnection", poolStats.getPendingThreads());
+            stats.put("acquireCount", acquires);
+            stats.put("avgAcquireMillis", acquires == 0 ? 0.0 : acquireNanos.sum() / (double) acquires / TimeUnit.MILLISECONDS.toNanos(1));
+            stats.put("maxAcquireMillis", maxAcquireNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1));
+            stats.put("avgUsageMillis", usages == 0 ? 0.0 : usageMillis.sum() / (double) usages);
+            stats.put("timeoutCount", timeoutCount.sum());
+            return stats;
+        }
+    }
+}
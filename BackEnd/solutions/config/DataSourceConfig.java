@@ -2,26 +2,106 @@ package config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.context.annotation.Primary;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 
 @Configuration
 public class DataSourceConfig {
-    @Bean
+    // @Value("${foundry.datasource.path:Database/testdb/testdb}") // Use testdb
+    @Value("${foundry.datasource.path:Database/proddb/proddb}") // Use proddb
+    private String databasePath;
+
+    @Value("${foundry.datasource.read-pool-size:4}")
+    private int readPoolSize;
+
+    @Value("${foundry.datasource.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${foundry.datasource.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${foundry.datasource.cache-size-kib:65536}")
+    private int cacheSizeKib;
+
+    @Value("${foundry.datasource.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private QueryMetrics queryMetrics;
+
+    // Single connection pool that owns every write; SQLite only allows one writer at a time anyway
+    @Bean(destroyMethod = "close")
+    @Primary
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("org.sqlite.JDBC");
-        // dataSource.setUrl("jdbc:sqlite:Database/testdb/testdb"); // Use testdb
-        dataSource.setUrl("jdbc:sqlite:Database/proddb/proddb?foreign_keys=ON"); // Use proddb
-        return dataSource;
+        SQLiteConfig sqliteConfig = baseConfig();
+        sqliteConfig.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        sqliteConfig.setTransactionMode(SQLiteConfig.TransactionMode.IMMEDIATE);
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("sqlite-writer");
+        hikariConfig.setDataSource(sqliteDataSource(sqliteConfig));
+        hikariConfig.setMaximumPoolSize(1);
+        hikariConfig.setMinimumIdle(1);
+        hikariConfig.setConnectionTimeout(connectionTimeoutMs);
+        hikariConfig.setMetricsTrackerFactory(connectionPoolMetrics);
+        return new HikariDataSource(hikariConfig);
+    }
+
+    // Read-only pool; WAL lets these run concurrently with the writer
+    @Bean(destroyMethod = "close")
+    public DataSource readDataSource(@Qualifier("dataSource") DataSource writerDataSource) {
+        // The writer is created first so the database is already in WAL mode when readers open it
+        SQLiteConfig sqliteConfig = baseConfig();
+        sqliteConfig.setReadOnly(true);
+
+        HikariConfig hikariConfig = new HikariConfig();
+        hikariConfig.setPoolName("sqlite-reader");
+        hikariConfig.setDataSource(sqliteDataSource(sqliteConfig));
+        hikariConfig.setMaximumPoolSize(readPoolSize);
+        hikariConfig.setMinimumIdle(readPoolSize);
+        hikariConfig.setReadOnly(true);
+        hikariConfig.setConnectionTimeout(connectionTimeoutMs);
+        hikariConfig.setMetricsTrackerFactory(connectionPoolMetrics);
+        return new HikariDataSource(hikariConfig);
+    }
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(@Qualifier("dataSource") DataSource dataSource) {
+        return new InstrumentedJdbcTemplate(dataSource, queryMetrics);
     }
 
     @Bean
-    public JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource) {
-        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
-        jdbcTemplate.execute("PRAGMA foreign_keys = ON");
-        return jdbcTemplate;
+    public JdbcTemplate readJdbcTemplate(@Qualifier("readDataSource") DataSource readDataSource) {
+        return new InstrumentedJdbcTemplate(readDataSource, queryMetrics);
+    }
+
+    // Pragmas applied by the driver every time a pooled connection is opened
+    private SQLiteConfig baseConfig() {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.enforceForeignKeys(true);
+        sqliteConfig.setSynchronous(SQLiteConfig.SynchronousMode.NORMAL);
+        sqliteConfig.setBusyTimeout(busyTimeoutMs);
+        sqliteConfig.setCacheSize(-cacheSizeKib); // negative value is in KiB instead of pages
+        sqliteConfig.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        sqliteConfig.setTempStore(SQLiteConfig.TempStore.MEMORY);
+        return sqliteConfig;
+    }
+
+    private SQLiteDataSource sqliteDataSource(SQLiteConfig sqliteConfig) {
+        SQLiteDataSource sqliteDataSource = new SQLiteDataSource(sqliteConfig);
+        sqliteDataSource.setUrl("jdbc:sqlite:" + databasePath);
+        return sqliteDataSource;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.jdbc.core.StatementCallback;
+import org.springframework.jdbc.support.KeyHolder;
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+// JdbcTemplate that times every statement, including reading its rows, and reports it to QueryMetrics.
+// JdbcTemplate runs statements through a private execute method, so the public entry points are wrapped instead.
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+    private final QueryMetrics queryMetrics;
+    // Plain template for EXPLAIN QUERY PLAN, so explaining a slow query is not measured itself
+    private final JdbcTemplate explainTemplate;
+    // Arguments of the statement about to run on this thread, captured when Spring builds its setter
+    private final ThreadLocal<Object[]> pendingArgs = new ThreadLocal<>();
+    // Set while a statement is being timed, so entry points that delegate to each other count once
+    private final ThreadLocal<Boolean> timing = new ThreadLocal<>();
+
+    public InstrumentedJdbcTemplate(DataSource dataSource, QueryMetrics queryMetrics) {
+        super(dataSource);
+        this.queryMetrics = queryMetrics;
+        this.explainTemplate = new JdbcTemplate(dataSource);
+    }
+
+    JdbcTemplate getExplainTemplate() {
+        return explainTemplate;
+    }
+
+    @Override
+    protected PreparedStatementSetter newArgPreparedStatementSetter(Object[] args) {
+        pendingArgs.set(args);
+        return super.newArgPreparedStatementSetter(args);
+    }
+
+    @Override
+    protected PreparedStatementSetter newArgTypePreparedStatementSetter(Object[] args, int[] argTypes) {
+        pendingArgs.set(args);
+        return super.newArgTypePreparedStatementSetter(args, argTypes);
+    }
+
+    // Every query with parameters, including queryForObject, queryForList and queryForMap
+    @Override
+    public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) throws DataAccessException {
+        return timed(sqlOf(psc), () -> super.query(psc, pss, rse));
+    }
+
+    // Queries without parameters
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        return timed(sql, () -> super.query(sql, rse));
+    }
+
+    // update(sql, args...) and update(psc)
+    @Override
+    protected int update(PreparedStatementCreator psc, PreparedStatementSetter pss) throws DataAccessException {
+        return timed(sqlOf(psc), () -> super.update(psc, pss));
+    }
+
+    @Override
+    public int update(PreparedStatementCreator psc, KeyHolder generatedKeyHolder) throws DataAccessException {
+        return timed(sqlOf(psc), () -> super.update(psc, generatedKeyHolder));
+    }
+
+    @Override
+    public int update(String sql) throws DataAccessException {
+        return timed(sql, () -> super.update(sql));
+    }
+
+    @Override
+    public void execute(String sql) throws DataAccessException {
+        timed(sql, () -> {
+            super.execute(sql);
+            return null;
+        });
+    }
+
+    @Override
+    public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) throws DataAccessException {
+        return timed(sql, () -> super.batchUpdate(sql, pss));
+    }
+
+    @Override
+    public int[] batchUpdate(String... sql) throws DataAccessException {
+        return timed(sql.length > 0 ? sql[0] : null, () -> super.batchUpdate(sql));
+    }
+
+    @Override
+    public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) throws DataAccessException {
+        return timed(sqlOf(psc), () -> super.execute(psc, action));
+    }
+
+    @Override
+    public <T> T execute(String sql, PreparedStatementCallback<T> action) throws DataAccessException {
+        return timed(sql, () -> super.execute(sql, action));
+    }
+
+    @Override
+    public <T> T execute(StatementCallback<T> action) throws DataAccessException {
+        return timed(sqlOf(action), () -> super.execute(action));
+    }
+
+    private <T> T timed(String sql, Supplier<T> statement) {
+        if (timing.get() != null) {
+            return statement.get();
+        }
+        Object[] args = pendingArgs.get();
+        pendingArgs.remove();
+        timing.set(Boolean.TRUE);
+        long start = System.nanoTime();
+        T result = null;
+        boolean failed = true;
+        try {
+            result = statement.get();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            timing.remove();
+            queryMetrics.onExecuted(this, sql, args, nanos, result, failed);
+        }
+    }
+
+    private static String sqlOf(Object source) {
+        return source instanceof SqlProvider ? ((SqlProvider) source).getSql() : null;
+    }
+}
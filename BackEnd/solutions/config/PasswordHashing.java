@@ -0,0 +1,105 @@
+package config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// BCrypt costs tens of milliseconds of CPU per call, so it runs on a small pool of its own instead of the
+// request threads; a burst of logins then waits here rather than holding up search traffic. Work beyond the
+// queue is rejected with a RejectedExecutionException instead of piling up.
+@Component
+public class PasswordHashing implements MeterBinder {
+    // 0 means half the available processors
+    @Value("${foundry.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${foundry.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("foundry.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+            .register(registry);
+        Gauge.builder("foundry.password.hashing.queued", executor, pool -> pool.getQueue().size())
+            .register(registry);
+        FunctionCounter.builder("foundry.password.hashing.completed", executor, ThreadPoolExecutor::getCompletedTaskCount)
+            .register(registry);
+        FunctionCounter.builder("foundry.password.hashing.seconds", hashNanos, nanos -> nanos.sum() / 1e9)
+            .register(registry);
+        FunctionCounter.builder("foundry.password.hashing.rejected", rejected, LongAdder::sum)
+            .register(registry);
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String passwordHash) {
+        return submit(() -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> hashing) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    future.complete(hashing.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            future.completeExceptionally(new RejectedExecutionException("Too many logins in progress, please try again"));
+        }
+        return future;
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "bcrypt-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
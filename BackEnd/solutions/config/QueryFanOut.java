@@ -0,0 +1,157 @@
+package config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Runs independent read queries concurrently, each on its own connection from the read pool.
+// Uses virtual threads on JDKs that have them and a small platform pool otherwise; either way
+// at most max-concurrency queries run at once, and work beyond the queue runs on the caller.
+@Component
+public class QueryFanOut {
+    @Value("${foundry.query-executor.max-concurrency:${foundry.datasource.read-pool-size:4}}")
+    private int maxConcurrency;
+
+    @Value("${foundry.query-executor.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${foundry.query-executor.virtual-threads:true}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+    // Only used with virtual threads, which the executor itself does not limit
+    private Semaphore admitted;
+    private Semaphore running;
+
+    @PostConstruct
+    public void start() {
+        if (virtualThreads) {
+            executor = newVirtualThreadExecutor();
+        }
+        if (executor != null) {
+            admitted = new Semaphore(maxConcurrency + queueCapacity);
+            running = new Semaphore(maxConcurrency);
+        } else {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new QueryThreadFactory());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                future.complete(query.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        try {
+            if (admitted != null) {
+                submitLimited(task);
+            } else {
+                executor.execute(task);
+            }
+        } catch (RejectedExecutionException e) {
+            // Saturated or shutting down: still answer, just without the parallelism
+            task.run();
+        }
+        return future;
+    }
+
+    public CompletableFuture<Void> run(Runnable query) {
+        return supply(() -> {
+            query.run();
+            return null;
+        });
+    }
+
+    // Wait for a fan-out from a synchronous caller, rethrowing what the query threw
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    // The exception a query threw, without the CompletableFuture wrappers around it
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private void submitLimited(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Query queue is full");
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from JDK 21; the build targets Java 8
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static class QueryThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "query-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Latency, row count and error count per named query, plus a rate-limited slow-query log.
+// Services name their statements with record(...); InstrumentedJdbcTemplate reports every execution here.
+@Component
+public class QueryMetrics implements MeterBinder {
+    static final String UNNAMED = "other";
+    private static final int MAX_LOGGED_PARAM_LENGTH = 80;
+
+    // The data sources need this bean before the application registry exists, so meters go through a composite
+    // that forwards to the registry once it is bound; executions before that are not recorded
+    private final CompositeMeterRegistry meterRegistry = new CompositeMeterRegistry();
+
+    @Value("${foundry.query-metrics.slow-threshold-ms:100}")
+    private long slowThresholdMs;
+
+    // At most one slow-query log entry per query name in this interval
+    @Value("${foundry.query-metrics.slow-log-interval-ms:10000}")
+    private long slowLogIntervalMs;
+
+    private final ThreadLocal<String> currentName = new ThreadLocal<>();
+    private final Map<String, QueryMeters> meters = new ConcurrentHashMap<>();
+    private volatile StatementListener statementListener;
+
+    // Sees every executed statement with its query name and bound arguments, e.g. to check query plans
+    public interface StatementListener {
+        void onStatement(String name, String sql, Object[] args);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry.add(registry);
+    }
+
+    public void setStatementListener(StatementListener listener) {
+        statementListener = listener;
+    }
+
+    // Run the given data access under a query name; nested names replace the outer one until they return
+    public <T> T record(String name, Supplier<T> query) {
+        String outer = currentName.get();
+        currentName.set(name);
+        try {
+            return query.get();
+        } finally {
+            if (outer == null) {
+                currentName.remove();
+            } else {
+                currentName.set(outer);
+            }
+        }
+    }
+
+    void onExecuted(InstrumentedJdbcTemplate source, String sql, Object[] args, long nanos, Object result, boolean failed) {
+        String name = currentName.get();
+        QueryMeters queryMeters = meters.computeIfAbsent(name != null ? name : UNNAMED, QueryMeters::new);
+        queryMeters.latency.record(nanos, TimeUnit.NANOSECONDS);
+        if (failed) {
+            queryMeters.errors.increment();
+        }
+        long rows = rowCount(result);
+        if (rows >= 0) {
+            queryMeters.rows.record(rows);
+        }
+
+        if (nanos >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs) && queryMeters.claimSlowLog(slowLogIntervalMs)) {
+            logSlowQuery(source, queryMeters.name, sql, args, nanos);
+        }
+
+        StatementListener listener = statementListener;
+        if (listener != null && sql != null) {
+            listener.onStatement(queryMeters.name, sql, args);
+        }
+    }
+
+    // Rows returned or changed, or -1 when the callback consumed them itself
+    private static long rowCount(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long total = 0;
+            for (int count : (int[]) result) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return -1;
+    }
+
+    private void logSlowQuery(InstrumentedJdbcTemplate source, String name, String sql, Object[] args, long nanos) {
+        StringBuilder entry = new StringBuilder();
+        entry.append("Slow query ").append(name).append(" took ")
+            .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append(" ms\n");
+        entry.append("  sql: ").append(sql != null ? sql.replaceAll("\\s+", " ").trim() : "(not available)").append('\n');
+        entry.append("  params: ").append(describe(args)).append('\n');
+        if (sql != null && isQuery(sql)) {
+            for (String line : explain(source.getExplainTemplate(), sql, args)) {
+                entry.append("  plan: ").append(line).append('\n');
+            }
+        }
+        System.err.print(entry);
+    }
+
+    private static boolean isQuery(String sql) {
+        String start = sql.trim().toUpperCase(Locale.ROOT);
+        return start.startsWith("SELECT") || start.startsWith("WITH");
+    }
+
+    private static List<String> explain(JdbcTemplate explainTemplate, String sql, Object[] args) {
+        List<String> plan = new ArrayList<>();
+        try {
+            explainTemplate.query("EXPLAIN QUERY PLAN " + sql, rs -> {
+                plan.add(rs.getInt("parent") + " " + rs.getString("detail"));
+            }, args != null ? args : new Object[0]);
+        } catch (Exception e) {
+            plan.add("(explain failed: " + e.getMessage() + ")");
+        }
+        return plan;
+    }
+
+    private static String describe(Object[] args) {
+        if (args == null) {
+            return "(not captured)";
+        }
+        List<String> values = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            String value = String.valueOf(arg);
+            values.add(value.length() > MAX_LOGGED_PARAM_LENGTH ? value.substring(0, MAX_LOGGED_PARAM_LENGTH) + "..." : value);
+        }
+        return values.toString();
+    }
+
+    private class QueryMeters {
+        final String name;
+        final Timer latency;
+        final DistributionSummary rows;
+        final Counter errors;
+        final AtomicLong lastSlowLogMillis = new AtomicLong();
+
+        QueryMeters(String name) {
+            this.name = name;
+            latency = Timer.builder("foundry.query.duration")
+                .description("Execution time of a named SQL query, including reading its rows")
+                .tag("query", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+            rows = DistributionSummary.builder("foundry.query.rows")
+                .description("Rows returned or changed by a named SQL query")
+                .tag("query", name)
+                .register(meterRegistry);
+            errors = Counter.builder("foundry.query.errors")
+                .description("Failed executions of a named SQL query")
+                .tag("query", name)
+                .register(meterRegistry);
+        }
+
+        boolean claimSlowLog(long intervalMs) {
+            long now = System.currentTimeMillis();
+            long last = lastSlowLogMillis.get();
+            return now - last >= intervalMs && lastSlowLogMillis.compareAndSet(last, now);
+        }
+    }
+}
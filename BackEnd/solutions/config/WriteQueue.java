@@ -0,0 +1,198 @@
+package config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Every mutation runs on one writer thread, so request threads never compete for SQLite's write lock.
+// The writer commits whatever is pending in one transaction (group commit); each write gets a savepoint,
+// so a failing write is rolled back alone while the rest of the batch commits. Callers' futures complete
+// only after the commit. Writes beyond the queue are rejected with a RejectedExecutionException.
+@Component
+public class WriteQueue implements MeterBinder {
+    @Value("${foundry.write-queue.capacity:1024}")
+    private int capacity;
+
+    @Value("${foundry.write-queue.max-batch-size:64}")
+    private int maxBatchSize;
+
+    // How long the writer waits for more writes to join a batch; 0 commits only what is already queued
+    @Value("${foundry.write-queue.max-delay-ms:2}")
+    private long maxDelayMs;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private BlockingQueue<PendingWrite<?>> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile DistributionSummary batchSizes;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::drain, "sqlite-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Writes already queued are still committed; anything left after the timeout is failed
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingWrite<?>> left = new ArrayList<>();
+        queue.drainTo(left);
+        for (PendingWrite<?> pending : left) {
+            pending.future.completeExceptionally(new RejectedExecutionException("The application is shutting down"));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("foundry.write.queue.depth", this, writes -> writes.queue.size())
+            .description("Writes waiting for the writer thread")
+            .register(registry);
+        batchSizes = DistributionSummary.builder("foundry.write.batch.size")
+            .description("Writes committed together in one transaction")
+            .register(registry);
+        FunctionCounter.builder("foundry.write.rejected", rejected, LongAdder::sum)
+            .register(registry);
+        FunctionCounter.builder("foundry.write.batch.failed", failedBatches, LongAdder::sum)
+            .register(registry);
+    }
+
+    // The write runs on the writer thread inside the batch transaction; use the writer JdbcTemplate in it
+    public <T> CompletableFuture<T> submit(Supplier<T> write) {
+        PendingWrite<T> pending = new PendingWrite<>(write);
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            pending.future.completeExceptionally(new RejectedExecutionException("Too many writes in progress, please try again"));
+        }
+        return pending.future;
+    }
+
+    // Wait for the write to commit, rethrowing what it threw
+    public <T> T execute(Supplier<T> write) {
+        // A write that queued another write and waited for it would never finish
+        if (Thread.currentThread() == writer) {
+            return write.get();
+        }
+        return QueryFanOut.join(submit(write));
+    }
+
+    private void drain() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                System.err.println("Write batch failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Top the batch up with writes that arrive within the delay
+    private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (PendingWrite<?> pending : batch) {
+                    Object savepoint = tx.createSavepoint();
+                    try {
+                        pending.run();
+                    } catch (RuntimeException e) {
+                        tx.rollbackToSavepoint(savepoint);
+                        pending.failure = e;
+                    }
+                    tx.releaseSavepoint(savepoint);
+                }
+            });
+        } catch (RuntimeException | Error e) {
+            // Nothing in the batch was committed
+            failedBatches.increment();
+            for (PendingWrite<?> pending : batch) {
+                if (pending.failure == null) {
+                    pending.failure = e;
+                }
+            }
+        }
+        DistributionSummary sizes = batchSizes;
+        if (sizes != null) {
+            sizes.record(batch.size());
+        }
+        for (PendingWrite<?> pending : batch) {
+            pending.complete();
+        }
+    }
+
+    private static class PendingWrite<T> {
+        final Supplier<T> write;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        Throwable failure;
+
+        PendingWrite(Supplier<T> write) {
+            this.write = write;
+        }
+
+        void run() {
+            result = write.get();
+        }
+
+        void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import components.cache.ReferenceDataCache;
+import service.JobService;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    @Autowired
+    private JobService jobService;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    // Rebuild in-memory data after the database was changed outside the application (e.g. an import)
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        try {
+            jobService.reloadCatalog();
+            referenceDataCache.invalidate();
+            return ResponseEntity.ok("Reloaded successfully");
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+}
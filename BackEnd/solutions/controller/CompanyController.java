@@ -1,10 +1,13 @@
 package controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import service.CompanyService;
-import data.Company;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/companies")
@@ -13,8 +16,15 @@ public class CompanyController {
     @Autowired
     private CompanyService companyService;
 
+    @Value("${foundry.reference-cache.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    // Served from pre-serialized bytes; clients revalidate with If-None-Match and usually get a 304
     @GetMapping
-    public List<Company> getAllCompanies() {
-        return companyService.getAllCompanies();
+    public ResponseEntity<byte[]> getAllCompanies(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).mustRevalidate();
+        return companyService.getAllCompaniesJson().toResponse(ifNoneMatch, cacheControl);
     }
-}
\ No newline at end of file
+}
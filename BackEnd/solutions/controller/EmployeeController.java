@@ -1,9 +1,12 @@
 package controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import data.EmployeeProfile;
 import service.EmployeeService;
 
@@ -23,6 +26,8 @@ public class EmployeeController {
         try {
             employeeService.updateProfile(employeeId, profile);
             return ResponseEntity.ok("Profile updated successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -1,13 +1,29 @@
 package controller;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.util.zip.GZIPOutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import data.JobAction;
+import data.JobCursor;
 import data.JobPosting;
+import data.ApplicationCursor;
 import data.ApplicationRequest;
+import components.events.ApplicationStatusEvents;
+import config.QueryFanOut;
 import service.JobService;
 import service.JobStatisticsService;
 
@@ -15,36 +31,71 @@ import service.JobStatisticsService;
 @RestController
 @RequestMapping("/api/jobs")
 public class JobController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
     @Autowired
     private JobService jobService;
     @Autowired
     private JobStatisticsService statisticsService;
+    @Autowired
+    private ApplicationStatusEvents applicationStatusEvents;
+
+    @Value("${foundry.applications.max-page-size:500}")
+    private int maxApplicationsPageSize;
 
     @GetMapping
-    @CrossOrigin(origins = "http://localhost:5173")
-    public List<JobPosting> getAllJobs(
+    @CrossOrigin(origins = "http://localhost:5173", exposedHeaders = NEXT_CURSOR_HEADER)
+    public ResponseEntity<?> getAllJobs(
         @RequestParam(required = false, defaultValue = "0") Integer page,
-        @RequestParam(required = false, defaultValue = "75") Integer pageSize
+        @RequestParam(required = false, defaultValue = "75") Integer pageSize,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String view
     ) {
-        // Calculate offset based on page number and page size
-        Integer offset = page * pageSize;
-        // Use searchJobs with no filters and with pagination params
-        return jobService.searchJobs(null, null, null, null, null, pageSize, offset, null);
+        try {
+            boolean summary = isSummary(view);
+            // Cursor mode: an empty cursor asks for the first page, later pages pass X-Next-Cursor back
+            if (cursor != null) {
+                return searchJobsAfter(null, null, null, null, null, pageSize, cursor, null, summary);
+            }
+            // Calculate offset based on page number and page size
+            Integer offset = page * pageSize;
+            // Use searchJobs with no filters and with pagination params
+            return ResponseEntity.ok(jobService.searchJobs(null, null, null, null, null, pageSize, offset, null, summary));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // One job including its description, for listings fetched with view=summary
+    @GetMapping("/{jobId:\\d+}")
+    @CrossOrigin(origins = "http://localhost:5173")
+    public ResponseEntity<?> getJob(@PathVariable Long jobId) {
+        JobPosting job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
     }
 
     @GetMapping("/recommendations")
     @CrossOrigin(origins = "http://localhost:5173")
-    public List<JobPosting> getRecommendedJobs(
+    public ResponseEntity<?> getRecommendedJobs(
         @RequestParam Long jobId,
-        @RequestParam Long userId) {
-        return jobService.getRecommendedJobs(jobId, userId);
+        @RequestParam Long userId,
+        @RequestParam(required = false) String mode) {
+        try {
+            return ResponseEntity.ok(jobService.getRecommendedJobs(jobId, userId, mode));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
 
     // Job search
     @GetMapping("/search")
-    @CrossOrigin(origins = "http://localhost:5173")
-    public List<JobPosting> searchJobs(
+    @CrossOrigin(origins = "http://localhost:5173", exposedHeaders = NEXT_CURSOR_HEADER)
+    public ResponseEntity<?> searchJobs(
         @RequestParam(required = false) Long cityId,
         @RequestParam(required = false) Long companyId,
         @RequestParam(required = false) Double minSalary,
@@ -52,10 +103,101 @@ public class JobController {
         @RequestParam(required = false) String workType,
         @RequestParam(required = false, defaultValue = "75") Integer pageSize,
         @RequestParam(required = false, defaultValue = "0") Integer page,
-        @RequestParam(required = false) Long userId) {
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false, defaultValue = "false") Boolean snippet,
+        @RequestParam(required = false) String view) {
+        boolean summary;
+        try {
+            summary = isSummary(view);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+        // Keyword search is ranked by relevance, so it pages by offset only
+        if (q != null && !q.trim().isEmpty()) {
+            if (cursor != null) {
+                return ResponseEntity.badRequest().body("Error: cursor paging is not supported together with q");
+            }
+            try {
+                return ResponseEntity.ok(jobService.searchJobsByKeyword(q, snippet, cityId, companyId, minSalary, maxSalary,
+                    workType, pageSize, page * pageSize, userId, summary));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            }
+        }
+        if (cursor != null) {
+            return searchJobsAfter(cityId, companyId, minSalary, maxSalary, workType, pageSize, cursor, userId, summary);
+        }
         // Calculate offset based on page number and page size
         Integer offset = page * pageSize;
-        return jobService.searchJobs(cityId, companyId, minSalary, maxSalary, workType, pageSize, offset, userId);
+        return ResponseEntity.ok(jobService.searchJobs(cityId, companyId, minSalary, maxSalary, workType, pageSize, offset, userId, summary));
+    }
+
+    // view=summary lists jobs without their description; the default full view keeps it
+    private static boolean isSummary(String view) {
+        if (view == null || "full".equals(view)) {
+            return false;
+        }
+        if ("summary".equals(view)) {
+            return true;
+        }
+        throw new IllegalArgumentException("Unknown view " + view + ", expected full or summary");
+    }
+
+    private ResponseEntity<?> searchJobsAfter(Long cityId, Long companyId, Double minSalary, Double maxSalary,
+                                              String workType, Integer pageSize, String cursor, Long userId,
+                                              boolean summary) {
+        try {
+            JobCursor after = cursor.isEmpty() ? null : JobCursor.decode(cursor);
+            List<JobPosting> jobs = jobService.searchJobsAfter(cityId, companyId, minSalary, maxSalary, workType, pageSize, after,
+                userId, summary);
+
+            // A full page means there may be more rows; hand back the position of its last job
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (!jobs.isEmpty() && jobs.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, JobCursor.after(jobs.get(jobs.size() - 1)).encode());
+            }
+            return response.body(jobs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Export every matching job as newline-delimited JSON, streamed while the query runs.
+    // Written on the request thread: an async StreamingResponseBody left Tomcat connections in a bad state after client aborts.
+    @GetMapping("/export")
+    @CrossOrigin(origins = "http://localhost:5173")
+    public void exportJobs(
+        @RequestParam(required = false) Long cityId,
+        @RequestParam(required = false) Long companyId,
+        @RequestParam(required = false) Double minSalary,
+        @RequestParam(required = false) Double maxSalary,
+        @RequestParam(required = false) String workType,
+        @RequestParam(required = false) Long userId,
+        @RequestParam(required = false, defaultValue = "false") Boolean gzip,
+        HttpServletResponse response) {
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        try {
+            OutputStream out = response.getOutputStream();
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192);
+                try {
+                    jobService.exportJobs(cityId, companyId, minSalary, maxSalary, workType, userId, compressed);
+                } finally {
+                    // Also when the query fails, so the client can still decompress the rows sent so far
+                    compressed.finish();
+                }
+            } else {
+                jobService.exportJobs(cityId, companyId, minSalary, maxSalary, workType, userId, out);
+            }
+        } catch (IOException e) {
+            // The client stopped reading, which is how consumers end a stream; the status line is long gone,
+            // so there is nothing to report
+        }
     }
 
     // Apply to a job
@@ -65,6 +207,8 @@ public class JobController {
         try {
             jobService.applyToJob(request.getEmployeeId(), Long.parseLong(request.getJobId()));
             return ResponseEntity.ok("Application submitted successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -81,6 +225,8 @@ public class JobController {
             job.setEmployerId(employerId);
             jobService.postJob(job);
             return ResponseEntity.ok("Job posted successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -97,6 +243,26 @@ public class JobController {
         }
     }
 
+    // Employer applications one page at a time, with per-status totals; pass nextCursor back as cursor for the next page
+    @GetMapping("/applications/employer")
+    @CrossOrigin(origins = "http://localhost:5173")
+    public ResponseEntity<?> getApplicationsPage(
+        @RequestHeader("user-id") Long employerId,
+        @RequestParam(required = false) Long jobId,
+        @RequestParam(required = false) String status,
+        @RequestParam(required = false, defaultValue = "50") Integer pageSize,
+        @RequestParam(required = false) String cursor) {
+        if (pageSize < 1 || pageSize > maxApplicationsPageSize) {
+            return ResponseEntity.badRequest().body("Error: pageSize must be between 1 and " + maxApplicationsPageSize);
+        }
+        try {
+            ApplicationCursor after = cursor == null || cursor.isEmpty() ? null : ApplicationCursor.decode(cursor);
+            return ResponseEntity.ok(jobService.getApplicationsPage(employerId, jobId, status, pageSize, after));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     // Get applications by employee ID
     @GetMapping("/applications/employee/{employeeId}")
     @CrossOrigin(origins = "http://localhost:5173")
@@ -109,16 +275,36 @@ public class JobController {
         }
     }
 
+    // Stream of "status" events, one per change to the employee's applications, instead of polling the list above
+    @GetMapping(value = "/applications/employee/{employeeId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin(origins = "http://localhost:5173")
+    public ResponseEntity<SseEmitter> subscribeToApplicationEvents(@PathVariable Long employeeId) {
+        try {
+            return ResponseEntity.ok(applicationStatusEvents.subscribe(employeeId));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     // Get total count for pagination
     @GetMapping("/count")
     @CrossOrigin(origins = "http://localhost:5173")
-    public int getJobsCount(
+    public ResponseEntity<?> getJobsCount(
         @RequestParam(required = false) Long cityId,
         @RequestParam(required = false) Long companyId,
         @RequestParam(required = false) Double minSalary,
         @RequestParam(required = false) Double maxSalary,
-        @RequestParam(required = false) String workType) {
-        return jobService.getTotalJobCount(cityId, companyId, minSalary, maxSalary, workType);
+        @RequestParam(required = false) String workType,
+        @RequestParam(required = false) String q,
+        @RequestParam(required = false, defaultValue = "false") Boolean approximate) {
+        if (q != null && !q.trim().isEmpty()) {
+            try {
+                return ResponseEntity.ok(jobService.getKeywordJobCount(q, cityId, companyId, minSalary, maxSalary, workType));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            }
+        }
+        return ResponseEntity.ok(jobService.getTotalJobCount(cityId, companyId, minSalary, maxSalary, workType, approximate));
     }
 
     // Shortlist a job
@@ -131,6 +317,8 @@ public class JobController {
         try {
             jobService.shortlistJob(employeeId, jobId);
             return ResponseEntity.ok("Job shortlisted successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -146,6 +334,21 @@ public class JobController {
         try {
             jobService.unshortlistJob(employeeId, jobId);
             return ResponseEntity.ok("Job removed from shortlist successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    // Shortlist, dislike or apply to many jobs at once; each item reports its own result
+    @PostMapping("/batch")
+    @CrossOrigin(origins = "http://localhost:5173")
+    public ResponseEntity<?> applyJobActions(@RequestBody List<JobAction> actions) {
+        try {
+            return ResponseEntity.ok(jobService.applyJobActions(actions));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -154,9 +357,11 @@ public class JobController {
     // Get shortlisted jobs for an employee
     @GetMapping("/shortlist/{employeeId}")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<?> getShortlistedJobs(@PathVariable Long employeeId) {
+    public ResponseEntity<?> getShortlistedJobs(
+        @PathVariable Long employeeId,
+        @RequestParam(required = false) String view) {
         try {
-            List<JobPosting> shortlistedJobs = jobService.getShortlistedJobs(employeeId);
+            List<JobPosting> shortlistedJobs = jobService.getShortlistedJobs(employeeId, isSummary(view));
             return ResponseEntity.ok(shortlistedJobs);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
@@ -173,6 +378,8 @@ public class JobController {
         try {
             jobService.dislikeJob(employeeId, jobId);
             return ResponseEntity.ok("Job disliked successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -188,6 +395,8 @@ public class JobController {
         try {
             jobService.undislikeJob(employeeId, jobId);
             return ResponseEntity.ok("Job removed from dislike list successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -195,23 +404,25 @@ public class JobController {
 
     @GetMapping("/statistics/location/{cityId}")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<?> getLocationStats(@PathVariable Long cityId) {
+    public CompletableFuture<ResponseEntity<?>> getLocationStats(@PathVariable Long cityId) {
         try {
-            Map<String, Object> stats = statisticsService.getLocationStats(cityId);
-            return ResponseEntity.ok(stats);
+            return statisticsService.getLocationStatsAsync(cityId)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> ResponseEntity.badRequest().body("Error: " + QueryFanOut.unwrap(e).getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: " + e.getMessage()));
         }
     }
 
     @GetMapping("/statistics/company/{companyId}")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<?> getCompanyStats(@PathVariable Long companyId) {
+    public CompletableFuture<ResponseEntity<?>> getCompanyStats(@PathVariable Long companyId) {
         try {
-            Map<String, Object> stats = statisticsService.getCompanyStats(companyId);
-            return ResponseEntity.ok(stats);
+            return statisticsService.getCompanyStatsAsync(companyId)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(e -> ResponseEntity.badRequest().body("Error: " + QueryFanOut.unwrap(e).getMessage()));
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Error: " + e.getMessage()));
         }
     }
 
@@ -281,6 +492,8 @@ public class JobController {
         try {
             jobService.changeApplicationStatus(employeeId, jobId, status);
             return ResponseEntity.ok("Application status changed successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
@@ -1,10 +1,13 @@
 package controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import service.LocationService;
-import data.Location;
-import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/locations")
@@ -13,8 +16,15 @@ public class LocationController {
     @Autowired
     private LocationService locationService;
 
+    @Value("${foundry.reference-cache.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    // Served from pre-serialized bytes; clients revalidate with If-None-Match and usually get a 304
     @GetMapping
-    public List<Location> getAllLocations() {
-        return locationService.getAllLocations();
+    public ResponseEntity<byte[]> getAllLocations(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        CacheControl cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).mustRevalidate();
+        return locationService.getAllLocationsJson().toResponse(ifNoneMatch, cacheControl);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import config.ConnectionPoolMetrics;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(origins = "http://localhost:5173")
+public class MetricsController {
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @GetMapping("/pools")
+    public Map<String, Object> getPoolMetrics() {
+        return connectionPoolMetrics.snapshot();
+    }
+}
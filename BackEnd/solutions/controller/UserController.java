@@ -1,9 +1,14 @@
 package controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import config.QueryFanOut;
 import data.UserProfile;
 import data.LoginRequest;
 import service.UserService;
@@ -20,6 +25,8 @@ public class UserController {
         try {
             userService.signUp(userProfile);
             return ResponseEntity.ok("User signed up successfully");
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -27,12 +34,16 @@ public class UserController {
 
     @PostMapping("/login")
     @CrossOrigin(origins = "http://localhost:5173")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        try {
-            UserProfile userProfile = userService.login(loginRequest);
-            return ResponseEntity.ok().body(userProfile);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        return userService.loginAsync(loginRequest)
+            .<ResponseEntity<?>>thenApply(userProfile -> ResponseEntity.ok().body(userProfile))
+            .exceptionally(e -> {
+                Throwable cause = QueryFanOut.unwrap(e);
+                // The password hashing queue is full
+                if (cause instanceof RejectedExecutionException) {
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(cause.getMessage());
+                }
+                return ResponseEntity.badRequest().body(cause.getMessage());
+            });
     }
 }
\ No newline at end of file
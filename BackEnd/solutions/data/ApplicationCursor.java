@@ -0,0 +1,63 @@
+package data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque position in the (JobId, Status, ApplyDate, EmployeeId) ordering of the employer applications feed
+public class ApplicationCursor {
+    private static final String SEPARATOR = "|";
+
+    private final Long jobId;
+    private final String status;
+    private final String applyDate;
+    private final Long employeeId;
+
+    public ApplicationCursor(Long jobId, String status, String applyDate, Long employeeId) {
+        this.jobId = jobId;
+        this.status = status;
+        this.applyDate = applyDate;
+        this.employeeId = employeeId;
+    }
+
+    // Cursor pointing just after the given application
+    public static ApplicationCursor after(EmployerApplication application) {
+        return new ApplicationCursor(application.getJobId(), application.getStatus(), application.getApplyDate(),
+            application.getEmployeeId());
+    }
+
+    public static ApplicationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new ApplicationCursor(Long.parseLong(parts[0]), parts[1], parts[2], Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and malformed Base64
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = jobId + SEPARATOR + status + SEPARATOR + applyDate + SEPARATOR + employeeId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getApplyDate() {
+        return applyDate;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+}
@@ -0,0 +1,27 @@
+package data;
+
+// Pushed to an employee when the status of one of their applications changes
+public class ApplicationStatusEvent {
+    private final Long employeeId;
+    private final Long jobId;
+    private final String status;
+
+    public ApplicationStatusEvent(Long employeeId, Long jobId, String status) {
+        this.employeeId = employeeId;
+        this.jobId = jobId;
+        this.status = status;
+    }
+
+    // Getters
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+}
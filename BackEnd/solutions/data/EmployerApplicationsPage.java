@@ -0,0 +1,34 @@
+package data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Map;
+
+// One page of the employer applications feed, with the number of applications per status across all pages
+public class EmployerApplicationsPage {
+    private final List<EmployerApplication> applications;
+    private final Map<String, Integer> statusCounts;
+    // Absent on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String nextCursor;
+
+    public EmployerApplicationsPage(List<EmployerApplication> applications, Map<String, Integer> statusCounts, String nextCursor) {
+        this.applications = applications;
+        this.statusCounts = statusCounts;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<EmployerApplication> getApplications() {
+        return applications;
+    }
+
+    public Map<String, Integer> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
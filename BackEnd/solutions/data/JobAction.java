@@ -0,0 +1,33 @@
+package data;
+
+// One item of a batch request: shortlist, unshortlist, dislike, undislike or apply
+public class JobAction {
+    private String action;
+    private Long employeeId;
+    private Long jobId;
+
+    // Getters and Setters
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Long getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(Long employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+}
@@ -0,0 +1,47 @@
+package data;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Outcome of one batch item, reported in request order
+public class JobActionResult {
+    public static final String CHANGED = "changed";     // the row was inserted or deleted
+    public static final String UNCHANGED = "unchanged"; // already in the requested state
+    public static final String REJECTED = "rejected";   // not executed, see error
+
+    private String action;
+    private Long jobId;
+    private String status;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public JobActionResult(JobAction request) {
+        this.action = request.getAction();
+        this.jobId = request.getJobId();
+    }
+
+    // Getters and Setters
+    public String getAction() {
+        return action;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void reject(String error) {
+        this.status = REJECTED;
+        this.error = error;
+    }
+}
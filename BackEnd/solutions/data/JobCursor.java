@@ -0,0 +1,50 @@
+package data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque position in the (PostDate DESC, JobId DESC) ordering used by job search
+public class JobCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String postDate;
+    private final Long jobId;
+
+    public JobCursor(String postDate, Long jobId) {
+        this.postDate = postDate;
+        this.jobId = jobId;
+    }
+
+    // Cursor pointing just after the given job
+    public static JobCursor after(JobPosting job) {
+        return new JobCursor(job.getPostDate(), job.getJobId());
+    }
+
+    public static JobCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new JobCursor(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and malformed Base64
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = postDate + SEPARATOR + jobId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public String getPostDate() {
+        return postDate;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+}
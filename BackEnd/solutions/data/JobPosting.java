@@ -1,10 +1,13 @@
 package data;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class JobPosting {
     private Long jobId;
     private Long employerId;
     private String title;
-    private String description;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String description; // Left out of summary listings
     private Double minSalary;
     private Double maxSalary;
     private String workType;
@@ -17,6 +20,8 @@ public class JobPosting {
     private int applyCount;
     private int dislikeCount;
     private int shortlistCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet; // Highlighted description excerpt, only for keyword search
 
     // Getters and Setters
     public Long getJobId() {
@@ -146,4 +151,12 @@ public class JobPosting {
     public void setShortlistCount(int shortlistCount) {
         this.shortlistCount = shortlistCount;
     }
-}
\ No newline at end of file
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+}
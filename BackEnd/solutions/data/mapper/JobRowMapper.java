@@ -1,60 +1,59 @@
 package data.mapper;
 
 import org.springframework.jdbc.core.RowMapper;
+import java.lang.ref.WeakReference;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.stereotype.Component;
 
 import data.JobPosting;
 
 @Component
 public class JobRowMapper implements RowMapper<JobPosting> {
+    // Upper bound on distinct pooled strings; beyond it values are used as read
+    private static final int MAX_POOLED_STRINGS = 8192;
+
+    // Column positions of the last result set mapped on this thread
+    private final ThreadLocal<Layout> layouts = new ThreadLocal<>();
+    // Shared copies of the few distinct city, company, country and work type names
+    private final ConcurrentHashMap<String, String> stringPool = new ConcurrentHashMap<>();
+
     @Override
     public JobPosting mapRow(ResultSet rs, int rowNum) throws SQLException {
         try {
+            Layout layout = layoutFor(rs, rowNum);
+
             JobPosting jobPosting = new JobPosting();
-            jobPosting.setJobId(rs.getLong("JobId"));
-            jobPosting.setEmployerId(rs.getLong("EmployerId"));
-            jobPosting.setTitle(rs.getString("Title"));
-            jobPosting.setDescription(rs.getString("Description"));
-            jobPosting.setMinSalary(rs.getDouble("MinSalary"));
-            jobPosting.setMaxSalary(rs.getDouble("MaxSalary"));
-            jobPosting.setWorkType(rs.getString("WorkType"));
-            jobPosting.setIsActive(rs.getBoolean("IsActive"));
-            jobPosting.setPostDate(rs.getString("PostDate"));
-
-            // Handle potentially null values from LEFT JOINs
-            String companyName = rs.getString("CompanyName");
-            jobPosting.setCompanyName(companyName != null ? companyName : "Unknown Company");
-
-            String cityName = rs.getString("CityName");
-            jobPosting.setCityName(cityName != null ? cityName : "Remote");
-
-            try {
-                String countryName = rs.getString("CountryName");
-                jobPosting.setCountryName(countryName != null ? countryName : "Unknown Country");
-            } catch (SQLException e) {
-                jobPosting.setCountryName("Unknown Country");
-            }
+            jobPosting.setJobId(rs.getLong(layout.jobId));
+            jobPosting.setEmployerId(rs.getLong(layout.employerId));
+            jobPosting.setTitle(rs.getString(layout.title));
+            // Summary listings do not select the description
+            jobPosting.setDescription(optionalString(rs, layout.description));
+            jobPosting.setMinSalary(rs.getDouble(layout.minSalary));
+            jobPosting.setMaxSalary(rs.getDouble(layout.maxSalary));
+            jobPosting.setWorkType(pooled(rs.getString(layout.workType)));
+            jobPosting.setIsActive(rs.getBoolean(layout.isActive));
+            jobPosting.setPostDate(rs.getString(layout.postDate));
 
-            // Check for optional columns
-            try {
-                jobPosting.setApplyCount(rs.getInt("apply_count"));
-            } catch (SQLException e) {
-                jobPosting.setApplyCount(0); // Default value if column is missing
-            }
+            // Handle potentially null values from LEFT JOINs, and columns the query did not select
+            String companyName = optionalString(rs, layout.companyName);
+            jobPosting.setCompanyName(companyName != null ? pooled(companyName) : "Unknown Company");
 
-            try {
-                jobPosting.setDislikeCount(rs.getInt("dislike_count"));
-            } catch (SQLException e) {
-                jobPosting.setDislikeCount(0); // Default value if column is missing
-            }
+            String cityName = optionalString(rs, layout.cityName);
+            jobPosting.setCityName(cityName != null ? pooled(cityName) : "Remote");
 
-            try {
-                jobPosting.setShortlistCount(rs.getInt("shortlist_count"));
-            } catch (SQLException e) {
-                jobPosting.setShortlistCount(0); // Default value if column is missing
-            }
+            String countryName = optionalString(rs, layout.countryName);
+            jobPosting.setCountryName(countryName != null ? pooled(countryName) : "Unknown Country");
+
+            // Engagement counters default to 0 when the query does not join JobEngagement
+            jobPosting.setApplyCount(optionalInt(rs, layout.applyCount));
+            jobPosting.setDislikeCount(optionalInt(rs, layout.dislikeCount));
+            jobPosting.setShortlistCount(optionalInt(rs, layout.shortlistCount));
 
             return jobPosting;
         } catch (SQLException e) {
@@ -63,4 +62,97 @@ public class JobRowMapper implements RowMapper<JobPosting> {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    // Resolve column positions on the first row of each result set and reuse them for the rest
+    private Layout layoutFor(ResultSet rs, int rowNum) throws SQLException {
+        Layout layout = layouts.get();
+        if (rowNum == 0 || layout == null || layout.resultSet.get() != rs) {
+            layout = new Layout(rs);
+            layouts.set(layout);
+        }
+        return layout;
+    }
+
+    private static String optionalString(ResultSet rs, int column) throws SQLException {
+        return column > 0 ? rs.getString(column) : null;
+    }
+
+    private static int optionalInt(ResultSet rs, int column) throws SQLException {
+        return column > 0 ? rs.getInt(column) : 0;
+    }
+
+    private String pooled(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = stringPool.get(value);
+        if (shared != null) {
+            return shared;
+        }
+        if (stringPool.size() >= MAX_POOLED_STRINGS) {
+            return value;
+        }
+        shared = stringPool.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    // 1-based column positions by name; 0 marks a column the query did not select
+    private static class Layout {
+        // Weak so a finished result set is not kept alive by an idle thread
+        final WeakReference<ResultSet> resultSet;
+        final int jobId;
+        final int employerId;
+        final int title;
+        final int description;
+        final int minSalary;
+        final int maxSalary;
+        final int workType;
+        final int isActive;
+        final int postDate;
+        final int companyName;
+        final int cityName;
+        final int countryName;
+        final int applyCount;
+        final int dislikeCount;
+        final int shortlistCount;
+
+        Layout(ResultSet rs) throws SQLException {
+            resultSet = new WeakReference<>(rs);
+            ResultSetMetaData metaData = rs.getMetaData();
+            Map<String, Integer> positions = new HashMap<>();
+            for (int column = metaData.getColumnCount(); column >= 1; column--) {
+                // Walk backwards so the first of two same-named columns wins, like findColumn
+                positions.put(metaData.getColumnLabel(column).toLowerCase(Locale.ROOT), column);
+            }
+
+            jobId = required(positions, "JobId");
+            employerId = required(positions, "EmployerId");
+            title = required(positions, "Title");
+            description = optional(positions, "Description");
+            minSalary = required(positions, "MinSalary");
+            maxSalary = required(positions, "MaxSalary");
+            workType = required(positions, "WorkType");
+            isActive = required(positions, "IsActive");
+            postDate = required(positions, "PostDate");
+            companyName = optional(positions, "CompanyName");
+            cityName = optional(positions, "CityName");
+            countryName = optional(positions, "CountryName");
+            applyCount = optional(positions, "apply_count");
+            dislikeCount = optional(positions, "dislike_count");
+            shortlistCount = optional(positions, "shortlist_count");
+        }
+
+        private static int required(Map<String, Integer> positions, String name) throws SQLException {
+            int column = optional(positions, name);
+            if (column == 0) {
+                throw new SQLException("Missing column " + name + " for JobPosting");
+            }
+            return column;
+        }
+
+        private static int optional(Map<String, Integer> positions, String name) {
+            Integer column = positions.get(name.toLowerCase(Locale.ROOT));
+            return column != null ? column : 0;
+        }
+    }
+}
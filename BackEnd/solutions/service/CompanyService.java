@@ -1,8 +1,12 @@
 package service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import components.cache.CachedJson;
+import components.cache.ReferenceDataCache;
+import config.QueryMetrics;
 import data.Company;
 import java.util.List;
 import data.mapper.CompanyMapper;
@@ -10,7 +14,12 @@ import data.mapper.CompanyMapper;
 @Service
 public class CompanyService {
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private QueryMetrics queryMetrics;
     private final CompanyMapper companyMapper = new CompanyMapper();
 
     public List<Company> getAllCompanies() {
@@ -18,6 +27,11 @@ public class CompanyService {
                     "FROM Companies " +
                     "ORDER BY CompanyName ASC";
 
-        return jdbcTemplate.query(sql, companyMapper);
+        return queryMetrics.record("getAllCompanies", () -> readJdbcTemplate.query(sql, companyMapper));
+    }
+
+    // Serialized list served from the reference data cache
+    public CachedJson getAllCompaniesJson() {
+        return referenceDataCache.get("companies", this::getAllCompanies);
     }
-}
\ No newline at end of file
+}
@@ -4,15 +4,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import config.QueryMetrics;
+import config.WriteQueue;
 import data.EmployeeProfile;
 
 @Service
 public class EmployeeService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private QueryMetrics queryMetrics;
+    @Autowired
+    private WriteQueue writeQueue;
 
     public void updateProfile(Long employeeId, EmployeeProfile profile) {
         String sql = "UPDATE Employees SET ResumeUrl = ? WHERE UserId = ?";
-        jdbcTemplate.update(sql, profile.getResumeUrl(), employeeId);
+        writeQueue.execute(() -> queryMetrics.record("updateProfile", () -> jdbcTemplate.update(sql, profile.getResumeUrl(), employeeId)));
     }
 }
\ No newline at end of file
@@ -1,19 +1,60 @@
 package service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.util.HtmlUtils;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import components.cache.JobCountCache;
+import components.cache.UserJobSets;
+import components.catalog.JobCatalog;
+import components.events.ApplicationStatusEvents;
+import components.recommendations.CoOccurrenceRecommender;
+import components.recommendations.RecommendationIndex;
+import config.QueryMetrics;
+import config.WriteQueue;
+import components.stats.EngagementStatistics;
+import data.ApplicationCursor;
+import data.ApplicationStatusEvent;
+import data.EmployerApplication;
+import data.EmployerApplicationsPage;
+import data.JobAction;
+import data.JobActionResult;
+import data.JobCursor;
 import data.JobPosting;
 import data.mapper.JobRowMapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.function.LongPredicate;
 
 
 @Service
@@ -21,34 +62,107 @@ public class JobService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
     @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
     private JobRowMapper jobRowMapper;
+    @Autowired
+    private JobCatalog jobCatalog;
+    @Autowired
+    private JobCountCache jobCountCache;
+    @Autowired
+    private UserJobSets userJobSets;
+    @Autowired
+    private EngagementStatistics engagementStatistics;
+    @Autowired
+    private RecommendationIndex recommendationIndex;
+    @Autowired
+    private CoOccurrenceRecommender coOccurrenceRecommender;
+    @Autowired
+    private ApplicationStatusEvents applicationStatusEvents;
+    @Autowired
+    private QueryMetrics queryMetrics;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private WriteQueue writeQueue;
+
+    @Value("${foundry.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Value("${foundry.recommendations.limit:3}")
+    private int recommendationLimit;
+
+    @Value("${foundry.batch.max-actions:500}")
+    private int maxBatchActions;
+
+    // Private-use characters that mark matches in snippets until the excerpt is HTML-escaped
+    private static final String MATCH_START = "\uE000";
+    private static final String MATCH_END = "\uE001";
+
+    // Bound parameters per IN (...) query, well below SQLite's host parameter limit
+    private static final int ID_BATCH_SIZE = 500;
+
+    private static final String SUMMARY_COLUMNS =
+        "j.JobId, j.EmployerId, j.Title, j.MinSalary, j.MaxSalary, j.WorkType, j.CityId, j.IsActive, j.PostDate, " +
+        "j.CompanyName, j.CityName, j.CountryName";
 
+    // Values allowed by the Applications.Status CHECK constraint
+    private static final List<String> APPLICATION_STATUSES =
+        Arrays.asList("Pending", "Interviewing", "Accepted", "Rejected", "Withdrawn");
+
+    // Statement behind each batch action; inserts skip rows that already exist instead of failing
+    private static final Map<String, String> JOB_ACTION_SQL = new HashMap<>();
+    static {
+        JOB_ACTION_SQL.put("shortlist", "INSERT OR IGNORE INTO Shortlist (EmployeeId, JobId) VALUES (?, ?)");
+        JOB_ACTION_SQL.put("unshortlist", "DELETE FROM Shortlist WHERE EmployeeId = ? AND JobId = ?");
+        JOB_ACTION_SQL.put("dislike", "INSERT OR IGNORE INTO Dislike (EmployeeId, JobId) VALUES (?, ?)");
+        JOB_ACTION_SQL.put("undislike", "DELETE FROM Dislike WHERE EmployeeId = ? AND JobId = ?");
+        JOB_ACTION_SQL.put("apply", "INSERT OR IGNORE INTO Applications (EmployeeId, JobId) VALUES (?, ?)");
+    }
+
+    // summary leaves out the description, the bulk of every row; GET /api/jobs/{jobId} returns it
     public List<JobPosting> searchJobs(Long cityId, Long companyId, Double minSalary, Double maxSalary,
-                                     String workType, Integer limit, Integer offset, Long userId) {
+                                     String workType, Integer limit, Integer offset, Long userId, boolean summary) {
+        return searchJobs(cityId, companyId, minSalary, maxSalary, workType, limit, offset, null, userId, summary);
+    }
+
+    // Keyset pagination: continue after the last job of the previous page instead of skipping an offset
+    public List<JobPosting> searchJobsAfter(Long cityId, Long companyId, Double minSalary, Double maxSalary,
+                                          String workType, Integer limit, JobCursor after, Long userId, boolean summary) {
+        return searchJobs(cityId, companyId, minSalary, maxSalary, workType, limit, null, after, userId, summary);
+    }
+
+    private List<JobPosting> searchJobs(Long cityId, Long companyId, Double minSalary, Double maxSalary,
+                                      String workType, Integer limit, Integer offset, JobCursor after, Long userId,
+                                      boolean summary) {
+        // Filter in memory and only go to SQLite for the rows of the requested page
+        if (jobCatalog.isReady()) {
+            LongPredicate excluded = userId != null ? userJobSets.get(UserJobSets.Kind.DISLIKED, userId)::contains : null;
+            long[] jobIds = jobCatalog.search(cityId, companyId, minSalary, maxSalary, workType, limit, offset, after, excluded);
+            if (jobIds != null) {
+                return getJobsByIds(jobIds, summary);
+            }
+        }
+        return searchJobsInDatabase(cityId, companyId, minSalary, maxSalary, workType, limit, offset, after, userId, summary);
+    }
+
+    private List<JobPosting> searchJobsInDatabase(Long cityId, Long companyId, Double minSalary, Double maxSalary,
+                                                String workType, Integer limit, Integer offset, JobCursor after, Long userId,
+                                                boolean summary) {
+        String sql = searchSql(userId != null, after != null, summary);
+        Object[] params = searchParams(cityId, companyId, minSalary, maxSalary, workType, limit, offset, after, userId);
+        return queryMetrics.record("searchJobs", () -> readJdbcTemplate.query(sql, jobRowMapper, params));
+    }
+
+    private String searchSql(boolean excludeDisliked, boolean seek, boolean summary) {
         StringBuilder sql = new StringBuilder(
-            "WITH application_count AS ( " +
-            "    SELECT JobId, COUNT(*) AS apply_count " +
-            "    FROM Applications " +
-            "    GROUP BY JobId " +
-            "), " +
-            "dislike_count AS ( " +
-            "    SELECT JobId, COUNT(*) AS dislike_count " +
-            "    FROM Dislike " +
-            "    GROUP BY JobId " +
-            "), " +
-            "shortlist_count AS ( " +
-            "    SELECT JobId, COUNT(*) AS shortlist_count " +
-            "    FROM Shortlist " +
-            "    GROUP BY JobId " +
-            ") " +
-            "SELECT j.*," +
-            "       COALESCE(ac.apply_count, 0) AS apply_count, " +
-            "       COALESCE(dc.dislike_count, 0) AS dislike_count, " +
-            "       COALESCE(sc.shortlist_count, 0) AS shortlist_count " +
+            "SELECT " + jobColumns(summary) + "," +
+            "       COALESCE(je.ApplyCount, 0) AS apply_count, " +
+            "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+            "       COALESCE(je.ShortlistCount, 0) AS shortlist_count " +
             "FROM JobDetailsView j " +
-            "LEFT JOIN application_count ac ON j.JobId = ac.JobId " +
-            "LEFT JOIN dislike_count dc ON j.JobId = dc.JobId " +
-            "LEFT JOIN shortlist_count sc ON j.JobId = sc.JobId " +
+            "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
             "WHERE j.IsActive = 1 " +
             "AND (?1 IS NULL OR j.CityId = ?1) " +
             "AND (?2 IS NULL OR j.CompanyId = ?2) " +
@@ -58,80 +172,321 @@ public class JobService {
         );
 
         // Conditionally add the NOT EXISTS clause if userId is provided
-        if (userId != null) {
+        if (excludeDisliked) {
             sql.append("AND NOT EXISTS ( " +
                        "    SELECT 1 FROM Dislike d WHERE d.EmployeeId = ?8 AND d.JobId = j.JobId " +
                        ") ");
         }
 
-        sql.append("ORDER BY j.PostDate DESC");
+        // Seek past the previous page; matches idxActiveJobsByPostDate so deep pages cost the same as page 1
+        if (seek) {
+            sql.append("AND (j.PostDate, j.JobId) < (?9, ?10) ");
+        }
+
+        sql.append("ORDER BY j.PostDate DESC, j.JobId DESC");
+        sql.append(" LIMIT ?6 OFFSET ?7"); // LIMIT -1 means no limit in SQLite
+        return sql.toString();
+    }
+
+    // Parameters indexed like the placeholders of searchSql
+    private Object[] searchParams(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType,
+                                  Integer limit, Integer offset, JobCursor after, Long userId) {
+        List<Object> params = new ArrayList<>();
+        params.add(cityId);
+        params.add(companyId);
+        params.add(minSalary);
+        params.add(maxSalary);
+        params.add(workType);
+        params.add(limit != null ? limit : -1);
+        params.add(offset != null ? offset : 0);
+        if (userId != null || after != null) params.add(userId);
+        if (after != null) {
+            params.add(after.getPostDate());
+            params.add(after.getJobId());
+        }
+        return params.toArray();
+    }
+
+    // Write every matching job as one JSON object per line, straight from the ResultSet to the stream
+    public void exportJobs(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType,
+                           Long userId, OutputStream out) throws IOException {
+        String sql = searchSql(userId != null, false, false);
+        ArgumentPreparedStatementSetter paramSetter = new ArgumentPreparedStatementSetter(
+            searchParams(cityId, companyId, minSalary, maxSalary, workType, null, null, null, userId));
+        // One value per call without flushing; the servlet buffer decides when bytes go out
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Values are separated by the newline written below, not by the default space between root values
+            generator.setRootValueSeparator(null);
+            int[] rowNum = {0};
+            queryMetrics.record("exportJobs", () -> {
+                readJdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(sql);
+                    ps.setFetchSize(exportFetchSize);
+                    paramSetter.setValues(ps);
+                    return ps;
+                }, (RowCallbackHandler) rs -> {
+                    try {
+                        writer.writeValue(generator, jobRowMapper.mapRow(rs, rowNum[0]++));
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                return rowNum[0];
+            });
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Keyword search over title and description, best BM25 matches first
+    public List<JobPosting> searchJobsByKeyword(String keywords, boolean snippet, Long cityId, Long companyId,
+                                                Double minSalary, Double maxSalary, String workType,
+                                                Integer limit, Integer offset, Long userId, boolean summary) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT " + jobColumns(summary) + "," +
+            "       COALESCE(je.ApplyCount, 0) AS apply_count, " +
+            "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+            "       COALESCE(je.ShortlistCount, 0) AS shortlist_count, " +
+            "       snippet(JobPostingsFts, 1, '" + MATCH_START + "', '" + MATCH_END + "', '...', 24) AS Snippet " +
+            "FROM JobPostingsFts f " +
+            "JOIN JobDetailsView j ON j.JobId = f.rowid " +
+            "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
+            "WHERE JobPostingsFts MATCH ?1 " +
+            "AND j.IsActive = 1 " +
+            "AND (?2 IS NULL OR j.CityId = ?2) " +
+            "AND (?3 IS NULL OR j.CompanyId = ?3) " +
+            "AND (?4 IS NULL OR j.MinSalary >= ?4) " +
+            "AND (?5 IS NULL OR j.MaxSalary <= ?5) " +
+            "AND (?6 IS NULL OR j.WorkType = ?6) "
+        );
 
-        if (limit != null) sql.append(" LIMIT ?6");
-        if (offset != null) sql.append(" OFFSET ?7");
+        if (userId != null) {
+            sql.append("AND NOT EXISTS ( " +
+                       "    SELECT 1 FROM Dislike d WHERE d.EmployeeId = ?9 AND d.JobId = j.JobId " +
+                       ") ");
+        }
+
+        sql.append("ORDER BY f.rank, j.PostDate DESC, j.JobId DESC");
+        sql.append(" LIMIT ?7 OFFSET ?8");
 
-        // Create a list of parameters to pass to the query
         List<Object> params = new ArrayList<>();
+        params.add(toMatchQuery(keywords));
         params.add(cityId);
         params.add(companyId);
         params.add(minSalary);
         params.add(maxSalary);
         params.add(workType);
-        if (limit != null) params.add(limit);
-        if (offset != null) params.add(offset);
+        params.add(limit != null ? limit : -1);
+        params.add(offset != null ? offset : 0);
         if (userId != null) params.add(userId);
 
-        return jdbcTemplate.query(sql.toString(), jobRowMapper, params.toArray());
+        return queryMetrics.record("searchJobsByKeyword", () -> readJdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            JobPosting job = jobRowMapper.mapRow(rs, rowNum);
+            // Ship the highlighted excerpt instead of the full description
+            if (snippet) {
+                job.setSnippet(highlight(rs.getString("Snippet")));
+                job.setDescription(null);
+            }
+            return job;
+        }, params.toArray()));
     }
 
-    public List<JobPosting> getRecommendedJobs(Long jobId, Long userId) {
-        StringBuilder sql = new StringBuilder(
-            "WITH JobIndustry AS ( " +
-            "    SELECT j.*, f.IndustryId, e.CompanyId" +
-            "    FROM JobPostings j " +
-            "    JOIN Employers e ON j.EmployerId = e.UserId " +
-            "    JOIN FocusOn f ON e.CompanyId = f.CompanyId " +
-            ") " +
-            "SELECT T1.*, a.CompanyName, a.CityName, a.CountryName, COUNT(a.JobId) AS application_count " +
-            "FROM JobIndustry T1 " +
-            "JOIN JobDetailsView a ON T1.JobId = a.JobId " +
-            "WHERE T1.IndustryId = ( " +
-            "    SELECT f.IndustryId " +
+    // Descriptions are employer input, so the excerpt is escaped and only the match markers become tags
+    private static String highlight(String snippet) {
+        if (snippet == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(snippet, "UTF-8").replace(MATCH_START, "<b>").replace(MATCH_END, "</b>");
+    }
+
+    public int getKeywordJobCount(String keywords, Long cityId, Long companyId, Double minSalary, Double maxSalary,
+                                  String workType) {
+        String sql =
+            "SELECT COUNT(*) " +
+            "FROM JobPostingsFts f " +
+            "JOIN JobDetailsView j ON j.JobId = f.rowid " +
+            "WHERE JobPostingsFts MATCH ?1 " +
+            "AND j.IsActive = 1 " +
+            "AND (?2 IS NULL OR j.CityId = ?2) " +
+            "AND (?3 IS NULL OR j.CompanyId = ?3) " +
+            "AND (?4 IS NULL OR j.MinSalary >= ?4) " +
+            "AND (?5 IS NULL OR j.MaxSalary <= ?5) " +
+            "AND (?6 IS NULL OR j.WorkType = ?6)";
+
+        return queryMetrics.record("getKeywordJobCount", () -> readJdbcTemplate.queryForObject(sql, Integer.class,
+            toMatchQuery(keywords), cityId, companyId, minSalary, maxSalary, workType));
+    }
+
+    // Turn free text into an FTS5 query: every word must match, the last one as a prefix.
+    // Quoting each word keeps user input from being parsed as FTS5 syntax.
+    private String toMatchQuery(String keywords) {
+        List<String> terms = new ArrayList<>();
+        for (String word : keywords.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add("\"" + word + "\"");
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search keywords must contain a letter or digit");
+        }
+        terms.set(terms.size() - 1, terms.get(terms.size() - 1) + "*");
+        return String.join(" ", terms);
+    }
+
+    // Load job rows for the given ids, keeping the order of the ids
+    private List<JobPosting> getJobsByIds(long[] jobIds, boolean summary) {
+        Map<Long, JobPosting> jobsById = new HashMap<>();
+        for (int from = 0; from < jobIds.length; from += ID_BATCH_SIZE) {
+            int to = Math.min(from + ID_BATCH_SIZE, jobIds.length);
+            String placeholders = String.join(", ", Collections.nCopies(to - from, "?"));
+            String sql =
+                "SELECT " + jobColumns(summary) + "," +
+                "       COALESCE(je.ApplyCount, 0) AS apply_count, " +
+                "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+                "       COALESCE(je.ShortlistCount, 0) AS shortlist_count " +
+                "FROM JobDetailsView j " +
+                "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
+                "WHERE j.JobId IN (" + placeholders + ")";
+
+            Object[] params = new Object[to - from];
+            for (int i = from; i < to; i++) {
+                params[i - from] = jobIds[i];
+            }
+            for (JobPosting job : queryMetrics.record("searchJobs.hydrate", () -> readJdbcTemplate.query(sql, jobRowMapper, params))) {
+                jobsById.put(job.getJobId(), job);
+            }
+        }
+
+        List<JobPosting> jobs = new ArrayList<>(jobIds.length);
+        for (long jobId : jobIds) {
+            JobPosting job = jobsById.get(jobId);
+            if (job != null) {
+                jobs.add(job);
+            }
+        }
+        return jobs;
+    }
+
+    // One job with its description and engagement counters, active or not; null if there is no such job
+    public JobPosting getJob(Long jobId) {
+        String sql =
+            "SELECT j.*," +
+            "       COALESCE(je.ApplyCount, 0) AS apply_count, " +
+            "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+            "       COALESCE(je.ShortlistCount, 0) AS shortlist_count " +
+            "FROM JobDetailsView j " +
+            "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
+            "WHERE j.JobId = ?";
+        List<JobPosting> jobs = queryMetrics.record("getJob", () -> readJdbcTemplate.query(sql, jobRowMapper, jobId));
+        return jobs.isEmpty() ? null : jobs.get(0);
+    }
+
+    // Listing columns; the summary selects everything JobRowMapper reads except Description
+    private static String jobColumns(boolean summary) {
+        return summary ? SUMMARY_COLUMNS : "j.*";
+    }
+
+    // Rebuild the in-memory job catalog, e.g. after jobs were imported outside the application
+    public void reloadCatalog() {
+        jobCatalog.reload();
+        engagementStatistics.reload();
+        recommendationIndex.reload();
+        coOccurrenceRecommender.reload();
+        userJobSets.clear();
+    }
+
+    // mode "industry" (default) recommends popular jobs of the same industry; "cf" jobs that applicants
+    // of this job also applied to or shortlisted, falling back to industry until the model is built
+    public List<JobPosting> getRecommendedJobs(Long jobId, Long userId, String mode) {
+        if (mode != null && !mode.equals("industry") && !mode.equals("cf")) {
+            throw new IllegalArgumentException("Unknown recommendation mode: " + mode);
+        }
+        if ("cf".equals(mode) && coOccurrenceRecommender.isReady()) {
+            long[] jobIds = coOccurrenceRecommender.recommend(jobId, userId, recommendationLimit);
+            if (jobIds != null) {
+                return getJobsByIds(jobIds, false);
+            }
+        }
+        if (recommendationIndex.isReady()) {
+            LongPredicate applied = userId != null ? userJobSets.get(UserJobSets.Kind.APPLIED, userId)::contains : null;
+            long[] jobIds = recommendationIndex.recommend(jobId, applied, recommendationLimit);
+            if (jobIds != null) {
+                return getJobsByIds(jobIds, false);
+            }
+        }
+        return getRecommendedJobsFromDatabase(jobId, userId);
+    }
+
+    // Same ranking as RecommendationIndex: active jobs in the job's (lowest) industry, most applications first
+    private List<JobPosting> getRecommendedJobsFromDatabase(Long jobId, Long userId) {
+        String sql =
+            "SELECT j.*, " +
+            "       COALESCE(je.ApplyCount, 0) AS apply_count, " +
+            "       COALESCE(je.DislikeCount, 0) AS dislike_count, " +
+            "       COALESCE(je.ShortlistCount, 0) AS shortlist_count " +
+            "FROM JobDetailsView j " +
+            "JOIN FocusOn f ON j.CompanyId = f.CompanyId " +
+            "LEFT JOIN JobEngagement je ON j.JobId = je.JobId " +
+            "WHERE f.IndustryId = ( " +
+            "    SELECT MIN(f.IndustryId) " +
             "    FROM JobPostings j " +
             "    JOIN Employers e ON j.EmployerId = e.UserId " +
             "    JOIN FocusOn f ON e.CompanyId = f.CompanyId " +
             "    WHERE j.JobId = ? " +
             ") " +
-            "AND T1.JobId NOT IN ( " +
+            "AND j.IsActive = 1 " +
+            "AND j.JobId NOT IN ( " +
             "    SELECT a.JobId " +
             "    FROM Applications a " +
             "    WHERE a.EmployeeId = ? " +
             ") " +
-            "GROUP BY T1.JobId " +
-            "ORDER BY application_count DESC " +
-            "LIMIT 3"
-        );
+            "ORDER BY apply_count DESC, j.JobId " +
+            "LIMIT ?";
 
-        return jdbcTemplate.query(sql.toString(), jobRowMapper, jobId, userId);
+        return queryMetrics.record("getRecommendedJobs", () -> readJdbcTemplate.query(sql, jobRowMapper, jobId, userId, recommendationLimit));
     }
 
     public void applyToJob(Long employeeId, Long jobId) {
         String checkSql = "SELECT COUNT(*) FROM Applications WHERE EmployeeId = ? AND JobId = ?";
-        int count = jdbcTemplate.queryForObject(checkSql, Integer.class, employeeId, jobId);
-
-        if (count > 0) {
-            throw new RuntimeException("You have already applied for this job");
-        }
-
         String sql = "INSERT INTO Applications (EmployeeId, JobId) VALUES (?, ?)";
-        jdbcTemplate.update(sql, employeeId, jobId);
+        writeQueue.execute(() -> {
+            int count = queryMetrics.record("applyToJob.check", () -> jdbcTemplate.queryForObject(checkSql, Integer.class, employeeId, jobId));
+            if (count > 0) {
+                throw new RuntimeException("You have already applied for this job");
+            }
+            return queryMetrics.record("applyToJob.insert", () -> jdbcTemplate.update(sql, employeeId, jobId));
+        });
+        recommendationIndex.onApplied(jobId);
+        userJobSets.added(UserJobSets.Kind.APPLIED, employeeId, jobId);
+        engagementStatistics.markDirty();
     }
 
     public void postJob(JobPosting job) {
         String sql = "INSERT INTO JobPostings (EmployerId, Title, Description, MinSalary, " +
                     "MaxSalary, WorkType, CityId) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql,
-            job.getEmployerId(), job.getTitle(), job.getDescription(),
-            job.getMinSalary(), job.getMaxSalary(), job.getWorkType(), job.getCityId());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        writeQueue.execute(() -> queryMetrics.record("postJob", () -> jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            ps.setObject(1, job.getEmployerId());
+            ps.setString(2, job.getTitle());
+            ps.setString(3, job.getDescription());
+            ps.setObject(4, job.getMinSalary());
+            ps.setObject(5, job.getMaxSalary());
+            ps.setString(6, job.getWorkType());
+            ps.setObject(7, job.getCityId());
+            return ps;
+        }, keyHolder)));
+
+        if (keyHolder.getKey() != null) {
+            jobCatalog.onJobPosted(keyHolder.getKey().longValue());
+            recommendationIndex.onJobPosted(keyHolder.getKey().longValue());
+        }
+        engagementStatistics.markDirty();
     }
 
     public List<Map<String, Object>> getApplications(Long employerId) {
@@ -143,7 +498,88 @@ public class JobService {
              "WHERE j.EmployerId = ? " +
              "ORDER BY j.JobId";
 
-        return jdbcTemplate.queryForList(sql, employerId);
+        return queryMetrics.record("getApplications", () -> readJdbcTemplate.queryForList(sql, employerId));
+    }
+
+    // Keyset-paged applications to an employer's jobs, optionally narrowed to one job and one status.
+    // Rows come in idxApplicationsByJobStatus order within each job, so any page is an index seek without a sort.
+    public EmployerApplicationsPage getApplicationsPage(Long employerId, Long jobId, String status, int limit,
+                                                        ApplicationCursor after) {
+        if (status != null && !APPLICATION_STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Unknown application status: " + status);
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT a.JobId, j.Title, a.EmployeeId, u.UserName, u.Email, e.ResumeUrl, a.Status, a.ApplyDate " +
+            "FROM JobPostings j " +
+            "JOIN Applications a ON a.JobId = j.JobId " +
+            "JOIN Users u ON u.UserId = a.EmployeeId " +
+            "JOIN Employees e ON e.UserId = a.EmployeeId " +
+            "WHERE j.EmployerId = ? "
+        );
+        List<Object> params = new ArrayList<>();
+        params.add(employerId);
+        if (jobId != null) {
+            sql.append("AND j.JobId = ? ");
+            params.add(jobId);
+        }
+        if (status != null) {
+            sql.append("AND a.Status = ? ");
+            params.add(status);
+        }
+        if (after != null) {
+            sql.append("AND (j.JobId, a.Status, a.ApplyDate, a.EmployeeId) > (?, ?, ?, ?) ");
+            params.add(after.getJobId());
+            params.add(after.getStatus());
+            params.add(after.getApplyDate());
+            params.add(after.getEmployeeId());
+        }
+        // Ordered by j.JobId rather than a.JobId so SQLite walks the employer's jobs in index order instead of sorting
+        sql.append("ORDER BY j.JobId, a.Status, a.ApplyDate, a.EmployeeId LIMIT ?");
+        // One extra row tells whether another page follows
+        params.add(limit + 1);
+
+        List<EmployerApplication> applications = queryMetrics.record("getApplicationsPage", () -> readJdbcTemplate.query(
+            sql.toString(), (rs, rowNum) -> {
+                EmployerApplication application = new EmployerApplication();
+                application.setJobId(rs.getLong("JobId"));
+                application.setJobTitle(rs.getString("Title"));
+                application.setEmployeeId(rs.getLong("EmployeeId"));
+                application.setUserName(rs.getString("UserName"));
+                application.setEmail(rs.getString("Email"));
+                application.setResume(rs.getString("ResumeUrl"));
+                application.setStatus(rs.getString("Status"));
+                application.setApplyDate(rs.getString("ApplyDate"));
+                return application;
+            }, params.toArray()));
+
+        String nextCursor = null;
+        if (applications.size() > limit) {
+            applications = applications.subList(0, limit);
+            nextCursor = ApplicationCursor.after(applications.get(limit - 1)).encode();
+        }
+        return new EmployerApplicationsPage(applications, getApplicationStatusCounts(employerId, jobId), nextCursor);
+    }
+
+    // Applications per status over all of the employer's jobs, or one of them; every status is listed, in schema order
+    private Map<String, Integer> getApplicationStatusCounts(Long employerId, Long jobId) {
+        // Grouped per job first so the covering index delivers the groups in order; summed up below
+        String sql =
+            "SELECT a.Status, COUNT(*) AS Applications " +
+            "FROM JobPostings j " +
+            "JOIN Applications a ON a.JobId = j.JobId " +
+            "WHERE j.EmployerId = ?1 " +
+            "AND (?2 IS NULL OR j.JobId = ?2) " +
+            "GROUP BY j.JobId, a.Status";
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String status : APPLICATION_STATUSES) {
+            counts.put(status, 0);
+        }
+        queryMetrics.record("getApplicationStatusCounts", () -> {
+            readJdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                counts.merge(rs.getString("Status"), rs.getInt("Applications"), Integer::sum), employerId, jobId);
+            return null;
+        });
+        return counts;
     }
 
     // Get applications by employee ID
@@ -154,11 +590,28 @@ public class JobService {
                     "JOIN Employers e ON j.EmployerId = e.UserId " +
                     "JOIN Companies c ON e.CompanyId = c.CompanyId " +
                     "WHERE a.EmployeeId = ?";
-        return jdbcTemplate.queryForList(sql, employeeId);
+        return queryMetrics.record("getApplicationsByEmployeeId", () -> readJdbcTemplate.queryForList(sql, employeeId));
+    }
+
+    // Get total count of jobs for pagination. approximate answers from the catalog's per-filter histograms
+    // without visiting any job; it is exact for a single filter and an estimate when filters are combined.
+    public int getTotalJobCount(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType, boolean approximate) {
+        if (approximate) {
+            int estimate = jobCatalog.estimateCount(cityId, companyId, minSalary, maxSalary, workType);
+            if (estimate >= 0) {
+                return estimate;
+            }
+        }
+        return jobCountCache.get(cityId, companyId, minSalary, maxSalary, workType,
+            () -> countJobs(cityId, companyId, minSalary, maxSalary, workType));
     }
 
-    // Get total count of jobs for pagination
-    public int getTotalJobCount(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType) {
+    private int countJobs(Long cityId, Long companyId, Double minSalary, Double maxSalary, String workType) {
+        int count = jobCatalog.count(cityId, companyId, minSalary, maxSalary, workType);
+        if (count >= 0) {
+            return count;
+        }
+
         StringBuilder sql = new StringBuilder(
             "SELECT COUNT(*) " +
             "FROM JobDetailsView j " +
@@ -177,43 +630,179 @@ public class JobService {
         params.add(maxSalary);
         params.add(workType);
 
-        return jdbcTemplate.queryForObject(sql.toString(), Integer.class, params.toArray());
+        return queryMetrics.record("getTotalJobCount", () -> readJdbcTemplate.queryForObject(sql.toString(), Integer.class, params.toArray()));
     }
     // Shortlist a job
     public void shortlistJob(Long employeeId, Long jobId) {
         String sql = "INSERT INTO Shortlist (EmployeeId, JobId) VALUES (?, ?)";
-        jdbcTemplate.update(sql, employeeId, jobId);
+        writeQueue.execute(() -> queryMetrics.record("shortlistJob", () -> jdbcTemplate.update(sql, employeeId, jobId)));
+        engagementStatistics.markDirty();
     }
 
     // Unshortlist a job
     public void unshortlistJob(Long employeeId, Long jobId) {
         String sql = "DELETE FROM Shortlist WHERE EmployeeId = ? AND JobId = ?";
-        jdbcTemplate.update(sql, employeeId, jobId);
+        writeQueue.execute(() -> queryMetrics.record("unshortlistJob", () -> jdbcTemplate.update(sql, employeeId, jobId)));
+        engagementStatistics.markDirty();
     }
 
     // Dislike a job
     public void dislikeJob(Long employeeId, Long jobId) {
         String sql = "INSERT INTO Dislike (EmployeeId, JobId) VALUES (?, ?)";
-        jdbcTemplate.update(sql, employeeId, jobId);
+        writeQueue.execute(() -> queryMetrics.record("dislikeJob", () -> jdbcTemplate.update(sql, employeeId, jobId)));
+        userJobSets.added(UserJobSets.Kind.DISLIKED, employeeId, jobId);
+        engagementStatistics.markDirty();
     }
 
     // UnDislike a job
     public void undislikeJob(Long employeeId, Long jobId) {
         String sql = "DELETE FROM Dislike WHERE EmployeeId = ? AND JobId = ?";
-        jdbcTemplate.update(sql, employeeId, jobId);
+        writeQueue.execute(() -> queryMetrics.record("undislikeJob", () -> jdbcTemplate.update(sql, employeeId, jobId)));
+        userJobSets.removed(UserJobSets.Kind.DISLIKED, employeeId, jobId);
+        engagementStatistics.markDirty();
+    }
+
+    // Run many shortlist/dislike/apply actions in one transaction.
+    // Consecutive actions of the same kind share one batched statement; results keep the request order.
+    public List<JobActionResult> applyJobActions(List<JobAction> actions) {
+        if (actions.size() > maxBatchActions) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatchActions + " actions");
+        }
+
+        // Foreign key failures would abort the whole batch, so unknown ids are rejected up front
+        Set<Long> jobIds = new HashSet<>();
+        Set<Long> employeeIds = new HashSet<>();
+        for (JobAction action : actions) {
+            if (action.getJobId() != null) jobIds.add(action.getJobId());
+            if (action.getEmployeeId() != null) employeeIds.add(action.getEmployeeId());
+        }
+        Set<Long> knownJobs = getExistingIds("SELECT JobId FROM JobPostings WHERE JobId IN ", jobIds);
+        Set<Long> knownEmployees = getExistingIds("SELECT UserId FROM Employees WHERE UserId IN ", employeeIds);
+
+        List<JobActionResult> results = new ArrayList<>(actions.size());
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            JobAction action = actions.get(i);
+            JobActionResult result = new JobActionResult(action);
+            if (!JOB_ACTION_SQL.containsKey(action.getAction())) {
+                result.reject("Unknown action");
+            } else if (!knownEmployees.contains(action.getEmployeeId())) {
+                result.reject("Unknown employee");
+            } else if (!knownJobs.contains(action.getJobId())) {
+                result.reject("Unknown job");
+            } else {
+                accepted.add(i);
+            }
+            results.add(result);
+        }
+        if (accepted.isEmpty()) {
+            return results;
+        }
+
+        // One write, so the whole batch commits or rolls back together
+        writeQueue.execute(() -> queryMetrics.record("applyJobActions", () -> {
+            int start = 0;
+            while (start < accepted.size()) {
+                String kind = actions.get(accepted.get(start)).getAction();
+                int end = start + 1;
+                while (end < accepted.size() && kind.equals(actions.get(accepted.get(end)).getAction())) {
+                    end++;
+                }
+                List<Integer> group = accepted.subList(start, end);
+
+                int[] counts = jdbcTemplate.batchUpdate(JOB_ACTION_SQL.get(kind), new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        JobAction action = actions.get(group.get(i));
+                        ps.setLong(1, action.getEmployeeId());
+                        ps.setLong(2, action.getJobId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return group.size();
+                    }
+                });
+                for (int i = 0; i < group.size(); i++) {
+                    results.get(group.get(i)).setStatus(counts[i] > 0 ? JobActionResult.CHANGED : JobActionResult.UNCHANGED);
+                }
+                start = end;
+            }
+            return null;
+        }));
+        // Only after commit, so a rolled back batch leaves the index and user sets untouched; in request order,
+        // so a dislike followed by an undislike of the same job ends up undisliked
+        for (int i = 0; i < results.size(); i++) {
+            JobActionResult result = results.get(i);
+            if (!JobActionResult.CHANGED.equals(result.getStatus())) {
+                continue;
+            }
+            long employeeId = actions.get(i).getEmployeeId();
+            if ("apply".equals(result.getAction())) {
+                recommendationIndex.onApplied(result.getJobId());
+                userJobSets.added(UserJobSets.Kind.APPLIED, employeeId, result.getJobId());
+            } else if ("dislike".equals(result.getAction())) {
+                userJobSets.added(UserJobSets.Kind.DISLIKED, employeeId, result.getJobId());
+            } else if ("undislike".equals(result.getAction())) {
+                userJobSets.removed(UserJobSets.Kind.DISLIKED, employeeId, result.getJobId());
+            }
+        }
+        engagementStatistics.markDirty();
+        return results;
+    }
+
+    private Set<Long> getExistingIds(String sqlPrefix, Set<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += ID_BATCH_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + ID_BATCH_SIZE, idList.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            existing.addAll(queryMetrics.record("getExistingIds", () -> readJdbcTemplate.queryForList(sqlPrefix + "(" + placeholders + ")", Long.class, chunk.toArray())));
+        }
+        return existing;
     }
 
     // Get shortlisted jobs
-    public List<JobPosting> getShortlistedJobs(Long employeeId) {
-        String sql = "SELECT j.* FROM JobDetailsView j " +
+    public List<JobPosting> getShortlistedJobs(Long employeeId, boolean summary) {
+        String sql = "SELECT " + jobColumns(summary) + " FROM JobDetailsView j " +
                     "JOIN Shortlist s ON j.JobId = s.JobId " +
                     "WHERE s.EmployeeId = ? " +
                     "ORDER BY j.PostDate DESC";
-        return jdbcTemplate.query(sql, jobRowMapper, employeeId);
+        return queryMetrics.record("getShortlistedJobs", () -> readJdbcTemplate.query(sql, jobRowMapper, employeeId));
     }
 
     public void changeApplicationStatus(Long employeeId, Long jobId, String status) {
         String sql = "UPDATE Applications SET Status = ? WHERE EmployeeId = ? AND JobId = ?";
-        jdbcTemplate.update(sql, status, employeeId, jobId);
+        List<ApplicationStatusEvent> events = new ArrayList<>();
+        int updated = writeQueue.execute(() -> queryMetrics.record("changeApplicationStatus", () -> {
+            List<String> previous = jdbcTemplate.queryForList(
+                "SELECT Status FROM Applications WHERE EmployeeId = ? AND JobId = ?", String.class, employeeId, jobId);
+            if (previous.isEmpty()) {
+                return 0;
+            }
+            // Read in the same transaction the applications that auto_withdraw_applications is about to withdraw
+            List<Long> withdrawn = "Accepted".equals(status) && !"Accepted".equals(previous.get(0))
+                ? jdbcTemplate.queryForList(
+                    "SELECT EmployeeId FROM Applications " +
+                    "WHERE JobId = ? AND EmployeeId != ? AND Status != 'Withdrawn' AND Status != 'Accepted'",
+                    Long.class, jobId, employeeId)
+                : Collections.emptyList();
+            int rows = jdbcTemplate.update(sql, status, employeeId, jobId);
+
+            if (!status.equals(previous.get(0))) {
+                events.add(new ApplicationStatusEvent(employeeId, jobId, status));
+            }
+            for (Long withdrawnEmployeeId : withdrawn) {
+                events.add(new ApplicationStatusEvent(withdrawnEmployeeId, jobId, "Withdrawn"));
+            }
+            return rows;
+        }));
+
+        // auto_withdraw_applications closes the job once an application is accepted
+        if (updated > 0 && "Accepted".equals(status)) {
+            jobCatalog.onJobDeactivated(jobId);
+            recommendationIndex.onJobDeactivated(jobId);
+        }
+        applicationStatusEvents.publish(events);
     }
 }
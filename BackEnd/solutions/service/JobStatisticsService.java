@@ -1,21 +1,45 @@
 package service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import components.stats.EngagementStatistics;
+import config.QueryFanOut;
+import config.QueryMetrics;
 
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 
 @Service
 public class JobStatisticsService {
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private EngagementStatistics engagementStatistics;
+    @Autowired
+    private QueryMetrics queryMetrics;
+    @Autowired
+    private QueryFanOut queryFanOut;
 
     // Location-based statistics
     public Map<String, Object> getLocationStats(Long cityId) {
+        return QueryFanOut.join(getLocationStatsAsync(cityId));
+    }
+
+    public CompletableFuture<Map<String, Object>> getLocationStatsAsync(Long cityId) {
+        Map<String, Object> stats = engagementStatistics.getLocationStats(cityId);
+        if (stats != null) {
+            return CompletableFuture.completedFuture(stats);
+        }
+        return getLocationStatsFromDatabase(cityId);
+    }
+
+    private CompletableFuture<Map<String, Object>> getLocationStatsFromDatabase(Long cityId) {
         // Get average counts for the location
         String avgSql =
             "SELECT " +
@@ -44,26 +68,45 @@ public class JobStatisticsService {
             "    FROM JobAverageStats WHERE CityId = ?" +
             ") subquery WHERE nt = 1";
 
-        // Execute queries and store results
-        Map<String, Object> result = new HashMap<>();
-        result.put("averages", jdbcTemplate.queryForMap(avgSql, cityId));
-
-        Map<String, Object> topApply = jdbcTemplate.queryForMap(topApplySql, cityId);
-        Map<String, Object> topDislike = jdbcTemplate.queryForMap(topDislikeSql, cityId);
-        Map<String, Object> topShortlist = jdbcTemplate.queryForMap(topShortlistSql, cityId);
-
-        // Combine into a single map
-        Map<String, Object> top10Percent = new HashMap<>();
-        top10Percent.putAll(topApply);
-        top10Percent.putAll(topDislike);
-        top10Percent.putAll(topShortlist);
-
-        result.put("top_10_percent", top10Percent);
-        return result;
+        // The four queries are independent, so run them at the same time on separate connections
+        CompletableFuture<Map<String, Object>> averages = queryFanOut.supply(() ->
+            queryMetrics.record("getLocationStats.averages", () -> readJdbcTemplate.queryForMap(avgSql, cityId)));
+        CompletableFuture<Map<String, Object>> topApply = queryFanOut.supply(() ->
+            queryMetrics.record("getLocationStats.topApply", () -> readJdbcTemplate.queryForMap(topApplySql, cityId)));
+        CompletableFuture<Map<String, Object>> topDislike = queryFanOut.supply(() ->
+            queryMetrics.record("getLocationStats.topDislike", () -> readJdbcTemplate.queryForMap(topDislikeSql, cityId)));
+        CompletableFuture<Map<String, Object>> topShortlist = queryFanOut.supply(() ->
+            queryMetrics.record("getLocationStats.topShortlist", () -> readJdbcTemplate.queryForMap(topShortlistSql, cityId)));
+
+        return CompletableFuture.allOf(averages, topApply, topDislike, topShortlist).thenApply(done -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("averages", averages.join());
+
+            // Combine into a single map
+            Map<String, Object> top10Percent = new HashMap<>();
+            top10Percent.putAll(topApply.join());
+            top10Percent.putAll(topDislike.join());
+            top10Percent.putAll(topShortlist.join());
+
+            result.put("top_10_percent", top10Percent);
+            return result;
+        });
     }
 
     // Company-based statistics
     public Map<String, Object> getCompanyStats(Long companyId) {
+        return QueryFanOut.join(getCompanyStatsAsync(companyId));
+    }
+
+    public CompletableFuture<Map<String, Object>> getCompanyStatsAsync(Long companyId) {
+        Map<String, Object> stats = engagementStatistics.getCompanyStats(companyId);
+        if (stats != null) {
+            return CompletableFuture.completedFuture(stats);
+        }
+        return getCompanyStatsFromDatabase(companyId);
+    }
+
+    private CompletableFuture<Map<String, Object>> getCompanyStatsFromDatabase(Long companyId) {
         // Get company's stats
         String companySql =
             "SELECT " +
@@ -101,17 +144,23 @@ public class JobStatisticsService {
             "        WHERE CompanyId IN (SELECT CompanyId FROM SameFocusCompanies)" +
             "    ) WHERE nt = 1) as top_shortlist";
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("company_averages", jdbcTemplate.queryForMap(companySql, companyId));
-        result.put("industry_top_10_percent", jdbcTemplate.queryForMap(topSql, companyId));
-
-        return result;
+        CompletableFuture<Map<String, Object>> companyAverages = queryFanOut.supply(() ->
+            queryMetrics.record("getCompanyStats.averages", () -> readJdbcTemplate.queryForMap(companySql, companyId)));
+        CompletableFuture<Map<String, Object>> industryTop = queryFanOut.supply(() ->
+            queryMetrics.record("getCompanyStats.industryTop", () -> readJdbcTemplate.queryForMap(topSql, companyId)));
+
+        return companyAverages.thenCombine(industryTop, (averages, top) -> {
+            Map<String, Object> result = new HashMap<>();
+            result.put("company_averages", averages);
+            result.put("industry_top_10_percent", top);
+            return result;
+        });
     }
 
     public List<Map<String, Object>> getShortlistRatioStats() {
         String sql = "SELECT * FROM ShortlistApplicationRatio ORDER BY ShortlistToApplicationRatio DESC LIMIT 10";
         try {
-            return jdbcTemplate.queryForList(sql);
+            return queryMetrics.record("getShortlistRatioStats", () -> readJdbcTemplate.queryForList(sql));
         } catch (Exception e) {
             System.err.println("Error getting shortlist ratio stats: " + e.getMessage());
             throw e;
@@ -121,7 +170,7 @@ public class JobStatisticsService {
     public Map<String, Object> getShortlistRatioForJob(Long jobId) {
         String sql = "SELECT * FROM ShortlistApplicationRatio WHERE JobId = ?";
         try {
-            return jdbcTemplate.queryForMap(sql, jobId);
+            return queryMetrics.record("getShortlistRatioForJob", () -> readJdbcTemplate.queryForMap(sql, jobId));
         } catch (Exception e) {
             System.err.println("Error getting shortlist ratio for job " + jobId + ": " + e.getMessage());
             throw e;
@@ -134,7 +183,7 @@ public class JobStatisticsService {
                         "JOIN JobPostings jp ON sar.JobId = jp.JobId " +
                         "WHERE jp.EmployerId = ?";
         try {
-            return jdbcTemplate.queryForList(sql, employerId);
+            return queryMetrics.record("getShortlistRatioForEmployer", () -> readJdbcTemplate.queryForList(sql, employerId));
         } catch (Exception e) {
             System.err.println("Error getting shortlist ratio for employer " + employerId + ": " + e.getMessage());
             throw e;
@@ -151,7 +200,7 @@ public class JobStatisticsService {
             "GROUP BY j.CityName, j.CountryName " +
             "ORDER BY AvgSalary DESC";
         try {
-            return jdbcTemplate.queryForList(sql);
+            return queryMetrics.record("getLocationMinsalary", () -> readJdbcTemplate.queryForList(sql));
         } catch (Exception e) {
             System.err.println("Error getting sorted locations by minsalary " + e.getMessage());
             throw e;
@@ -168,7 +217,7 @@ public class JobStatisticsService {
             "GROUP BY j.CityName, j.CountryName " +
             "ORDER BY AvgSalary DESC";
         try {
-            return jdbcTemplate.queryForList(sql);
+            return queryMetrics.record("getLocationMaxsalary", () -> readJdbcTemplate.queryForList(sql));
         } catch (Exception e) {
             System.err.println("Error getting sorted locations by maxsalary " + e.getMessage());
             throw e;
@@ -1,8 +1,12 @@
 package service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import components.cache.CachedJson;
+import components.cache.ReferenceDataCache;
+import config.QueryMetrics;
 import data.Location;
 import java.util.List;
 import data.mapper.LocationMapper;
@@ -10,7 +14,12 @@ import data.mapper.LocationMapper;
 @Service
 public class LocationService {
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private QueryMetrics queryMetrics;
     private final LocationMapper locationMapper = new LocationMapper();
 
     public List<Location> getAllLocations() {
@@ -19,6 +28,11 @@ public class LocationService {
                     "JOIN Countries co ON c.CountryId = co.CountryId " +
                     "ORDER BY co.CountryName ASC, c.CityName ASC";
 
-        return jdbcTemplate.query(sql, locationMapper);
+        return queryMetrics.record("getAllLocations", () -> readJdbcTemplate.query(sql, locationMapper));
+    }
+
+    // Serialized list served from the reference data cache
+    public CachedJson getAllLocationsJson() {
+        return referenceDataCache.get("locations", this::getAllLocations);
     }
-}
\ No newline at end of file
+}
@@ -2,19 +2,23 @@ package service;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.dao.EmptyResultDataAccessException;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.support.TransactionTemplate;
 
+import components.cache.ReferenceDataCache;
+import config.PasswordHashing;
+import config.QueryFanOut;
+import config.QueryMetrics;
+import config.WriteQueue;
 import data.UserProfile;
 import data.LoginRequest;
 import data.mapper.UserProfileMapper;
@@ -23,140 +27,137 @@ import data.mapper.UserProfileMapper;
 public class UserService {
     @Autowired
     private JdbcTemplate jdbcTemplate;
-    private final BCryptPasswordEncoder passwordEncoder;
     private final UserProfileMapper userProfileMapper;
 
     @Autowired
     public UserService(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
-        this.passwordEncoder = new BCryptPasswordEncoder();
         this.userProfileMapper = new UserProfileMapper();
     }
 
     @Autowired
-    private TransactionTemplate transactionTemplate;
+    private WriteQueue writeQueue;
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+    @Autowired
+    private QueryMetrics queryMetrics;
+    @Autowired
+    private PasswordHashing passwordHashing;
+    @Autowired
+    @Qualifier("readJdbcTemplate")
+    private JdbcTemplate readJdbcTemplate;
 
     public void signUp(UserProfile userProfile) throws Exception {
-        transactionTemplate.executeWithoutResult(status -> {
-            try {
-                if (isDuplicateUser(userProfile.getPhone(), userProfile.getEmail())) {
-                    throw new RuntimeException("A user with the same phone number or email already exists");
-                }
+        // Hashed before the transaction so the single write connection is not held during BCrypt
+        String hashedPassword = QueryFanOut.join(passwordHashing.encode(userProfile.getPasswordHash()));
 
-                String insertUserSql = "INSERT INTO Users (Phone, PasswordHash, UserName, CityId, Role, Email) VALUES (?, ?, ?, ?, ?, ?)";
-                String hashedPassword = passwordEncoder.encode(userProfile.getPasswordHash());
-
-                KeyHolder keyHolder = new GeneratedKeyHolder();
-                jdbcTemplate.update(connection -> {
-                    PreparedStatement ps = connection.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS);
-                    ps.setString(1, userProfile.getPhone());
-                    ps.setString(2, hashedPassword);
-                    ps.setString(3, userProfile.getUserName());
-                    ps.setLong(4, userProfile.getCityId());
-                    ps.setString(5, userProfile.getRole());
-                    ps.setString(6, userProfile.getEmail().length() > 0 ? userProfile.getEmail() : null);
-                    return ps;
-                }, keyHolder);
-
-                Long userId = Optional.ofNullable(keyHolder.getKey())
-                        .map(Number::longValue)
-                        .orElseThrow(() -> new RuntimeException("Failed to retrieve generated user ID"));
-
-                if ("employee".equalsIgnoreCase(userProfile.getRole())) {
-                    String insertEmployeeSql = "INSERT INTO Employees (UserId) VALUES (?)";
-                    jdbcTemplate.update(insertEmployeeSql, userId);
-                } else if ("employer".equalsIgnoreCase(userProfile.getRole())) {
-                    String insertEmployerSql = "INSERT INTO Employers (UserId, CompanyId) VALUES (?, ?)";
-                    jdbcTemplate.update(insertEmployerSql, userId, userProfile.getCompanyId());
-                } else {
-                    throw new RuntimeException("Invalid role");
-                }
+        // Failed checks and inserts roll back only this signup
+        writeQueue.execute(() -> {
+            if (isDuplicateUser(userProfile.getPhone(), userProfile.getEmail())) {
+                throw new RuntimeException("A user with the same phone number or email already exists");
+            }
 
-            } catch (RuntimeException ex) {
-                status.setRollbackOnly();
-                throw ex;
+            String insertUserSql = "INSERT INTO Users (Phone, PasswordHash, UserName, CityId, Role, Email) VALUES (?, ?, ?, ?, ?, ?)";
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            queryMetrics.record("signUp.insertUser", () -> jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(insertUserSql, Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, userProfile.getPhone());
+                ps.setString(2, hashedPassword);
+                ps.setString(3, userProfile.getUserName());
+                ps.setLong(4, userProfile.getCityId());
+                ps.setString(5, userProfile.getRole());
+                ps.setString(6, userProfile.getEmail().length() > 0 ? userProfile.getEmail() : null);
+                return ps;
+            }, keyHolder));
+
+            Long userId = Optional.ofNullable(keyHolder.getKey())
+                    .map(Number::longValue)
+                    .orElseThrow(() -> new RuntimeException("Failed to retrieve generated user ID"));
+
+            if ("employee".equalsIgnoreCase(userProfile.getRole())) {
+                String insertEmployeeSql = "INSERT INTO Employees (UserId) VALUES (?)";
+                queryMetrics.record("signUp.insertEmployee", () -> jdbcTemplate.update(insertEmployeeSql, userId));
+            } else if ("employer".equalsIgnoreCase(userProfile.getRole())) {
+                String insertEmployerSql = "INSERT INTO Employers (UserId, CompanyId) VALUES (?, ?)";
+                queryMetrics.record("signUp.insertEmployer", () -> jdbcTemplate.update(insertEmployerSql, userId, userProfile.getCompanyId()));
+            } else {
+                throw new RuntimeException("Invalid role");
             }
+            return userId;
         });
+
+        // Reference lists are rebuilt on next request in case the signup added data they include
+        referenceDataCache.invalidate();
     }
 
 
     public UserProfile login(LoginRequest loginRequest) throws Exception {
-        UserProfile userProfile = findUserByIdentifier(loginRequest);
-        validatePassword(loginRequest, userProfile);
+        try {
+            return loginAsync(loginRequest).join();
+        } catch (CompletionException e) {
+            Throwable cause = QueryFanOut.unwrap(e);
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
 
-        enrichUserProfile(userProfile);
-        userProfile.setPasswordHash(null); // Remove password hash before returning
+    // The lookup runs on the calling thread; the password check completes the future on the hashing pool
+    public CompletableFuture<UserProfile> loginAsync(LoginRequest loginRequest) {
+        UserProfile userProfile;
+        try {
+            userProfile = findUserByIdentifier(loginRequest);
+        } catch (Exception e) {
+            CompletableFuture<UserProfile> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
 
-        return userProfile;
+        return passwordHashing.matches(loginRequest.getPassword(), userProfile.getPasswordHash()).thenApply(matches -> {
+            if (!matches) {
+                throw new CompletionException(new Exception("Invalid Username or Password"));
+            }
+            userProfile.setPasswordHash(null); // Remove password hash before returning
+            return userProfile;
+        });
     }
 
+    // One statement for the user and everything login returns. Each branch of the UNION is a seek on the
+    // unique Phone or Email index, where an OR across the two columns may scan Users.
     private UserProfile findUserByIdentifier(LoginRequest loginRequest) throws Exception {
-        String sql = "SELECT UserId, Phone, PasswordHash, UserName, Role, Email, CityId " +
-                    "FROM Users WHERE Phone = ? OR Email = ?";
-
-        List<Object> params = new ArrayList<>();
-        params.add(loginRequest.getIdentifier());
-        params.add(loginRequest.getIdentifier());
+        String sql = "SELECT u.UserId, u.Phone, u.PasswordHash, u.UserName, u.Role, u.Email, u.CityId, " +
+                    "       ci.CityName, co.CountryName, em.ResumeUrl, c.CompanyName " +
+                    "FROM ( " +
+                    "    SELECT UserId FROM Users WHERE Phone = ? " +
+                    "    UNION " +
+                    "    SELECT UserId FROM Users WHERE Email = ? " +
+                    ") m " +
+                    "JOIN Users u ON u.UserId = m.UserId " +
+                    "LEFT JOIN Cities ci ON u.CityId = ci.CityId " +
+                    "LEFT JOIN Countries co ON ci.CountryId = co.CountryId " +
+                    "LEFT JOIN Employees em ON u.UserId = em.UserId " +
+                    "LEFT JOIN Employers er ON u.UserId = er.UserId " +
+                    "LEFT JOIN Companies c ON er.CompanyId = c.CompanyId";
 
         try {
-            return jdbcTemplate.queryForObject(sql, userProfileMapper, params.toArray());
+            return queryMetrics.record("login.findUser", () -> readJdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
+                UserProfile userProfile = userProfileMapper.mapRow(rs, rowNum);
+                userProfile.setCityName(rs.getString("CityName"));
+                userProfile.setCountryName(rs.getString("CountryName"));
+                if ("employee".equalsIgnoreCase(userProfile.getRole())) {
+                    userProfile.setResumeUrl(rs.getString("ResumeUrl"));
+                } else if ("employer".equalsIgnoreCase(userProfile.getRole())) {
+                    userProfile.setCompanyName(rs.getString("CompanyName"));
+                }
+                return userProfile;
+            }, loginRequest.getIdentifier(), loginRequest.getIdentifier()));
         } catch (EmptyResultDataAccessException e) {
             throw new Exception("User not found with provided email/phone");
         }
     }
 
-    private void validatePassword(LoginRequest loginRequest, UserProfile userProfile) throws Exception {
-        if (!passwordEncoder.matches(loginRequest.getPassword(), userProfile.getPasswordHash())) {
-            throw new Exception("Invalid Username or Password");
-        }
-    }
-
-    private void enrichUserProfile(UserProfile userProfile) {
-        enrichWithCityDetails(userProfile);
-
-        if ("employee".equalsIgnoreCase(userProfile.getRole())) {
-            enrichWithResumeUrl(userProfile);
-        } else if ("employer".equalsIgnoreCase(userProfile.getRole())) {
-            enrichWithCompanyName(userProfile);
-        }
-    }
-
-    private void enrichWithCityDetails(UserProfile userProfile) {
-        String sql = "SELECT c.CityName, co.CountryName " +
-                    "FROM Cities c " +
-                    "JOIN Countries co ON c.CountryId = co.CountryId " +
-                    "WHERE c.CityId = ?";
-
-        List<String> cityDetails = jdbcTemplate.query(
-            sql,
-            (rs, rowNum) -> rs.getString("CityName") + "," + rs.getString("CountryName"),
-            userProfile.getCityId()
-        );
-
-        String[] cityDetailsArray = cityDetails.get(0).split(",");
-        userProfile.setCityName(cityDetailsArray[0]);
-        userProfile.setCountryName(cityDetailsArray[1]);
-    }
-
-    private void enrichWithResumeUrl(UserProfile userProfile) {
-        String sql = "SELECT ResumeUrl FROM Employees WHERE UserId = ?";
-        String resumeUrl = jdbcTemplate.queryForObject(sql, String.class, userProfile.getUserId());
-        userProfile.setResumeUrl(resumeUrl);
-    }
-
-    private void enrichWithCompanyName(UserProfile userProfile) {
-        String sql = "SELECT c.CompanyName " +
-                    "FROM Employers e " +
-                    "JOIN Companies c ON e.CompanyId = c.CompanyId " +
-                    "WHERE e.UserId = ?";
-
-        String companyName = jdbcTemplate.queryForObject(sql, String.class, userProfile.getUserId());
-        userProfile.setCompanyName(companyName);
-    }
-
     private boolean isDuplicateUser(String phone, String email) {
         String sql = "SELECT COUNT(*) FROM Users WHERE Phone = ? OR Email = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, phone, email);
+        Integer count = queryMetrics.record("signUp.checkDuplicate", () -> jdbcTemplate.queryForObject(sql, Integer.class, phone, email));
         return count != null && count > 0;
     }
 }
\ No newline at end of file
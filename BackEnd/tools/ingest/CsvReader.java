@@ -0,0 +1,138 @@
+package ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streaming RFC 4180 reader: comma separated, CRLF or LF records, double-quoted fields that may hold
+// commas, line breaks and "" escapes. Reads through a fixed buffer, so memory does not grow with the file.
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean started;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    // Next record, or null at the end of the input. Empty lines are skipped.
+    public String[] next() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        int c = read();
+        if (!started) {
+            // Byte order mark some exporters write before the header
+            started = true;
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c < 0) {
+            return null;
+        }
+        while (true) {
+            if (c == '"') {
+                c = readQuoted();
+            } else if (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                field.append((char) c);
+                c = readUnquoted();
+            }
+            fields.add(field.toString());
+            field.setLength(0);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            return fields.toArray(new String[0]);
+        }
+    }
+
+    // Appends up to the next separator or line break and returns it (-1 at the end of the input).
+    // Copies whole runs out of the buffer rather than a character at a time.
+    private int readUnquoted() throws IOException {
+        while (position < limit || fill()) {
+            int from = position;
+            while (position < limit) {
+                char c = buffer[position++];
+                if (c == ',' || c == '\r' || c == '\n') {
+                    field.append(buffer, from, position - 1 - from);
+                    return c;
+                }
+            }
+            field.append(buffer, from, position - from);
+        }
+        return -1;
+    }
+
+    // Reads a quoted field after its opening quote; returns the character after the closing quote
+    private int readQuoted() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new IOException("Unterminated quoted field");
+            }
+            int from = position;
+            while (position < limit && buffer[position] != '"') {
+                position++;
+            }
+            field.append(buffer, from, position - from);
+            if (position == limit) {
+                continue;
+            }
+            position++;
+            int c = read();
+            if (c != '"') {
+                // Text after the closing quote is kept, as lenient readers (and pandas) do
+                if (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                    field.append((char) c);
+                    c = readUnquoted();
+                }
+                return c;
+            }
+            field.append('"');
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,47 @@
+package ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Rows produced from a slice of the CSV, handed from the parsing thread to the writing thread
+class ImportBatch {
+    // Target tables in insert order, parents before the rows that reference them
+    enum Table {
+        INDUSTRY("INSERT INTO Industry (IndustryId, IndustryName) VALUES (?, ?)"),
+        COUNTRIES("INSERT INTO Countries (CountryId, CountryName) VALUES (?, ?)"),
+        CITIES("INSERT INTO Cities (CityId, CityName, CountryId) VALUES (?, ?, ?)"),
+        COMPANIES("INSERT INTO Companies (CompanyId, CompanyName, Size, CityId) VALUES (?, ?, ?, ?)"),
+        FOCUS_ON("INSERT INTO FocusOn (CompanyId, IndustryId) VALUES (?, ?)"),
+        USERS("INSERT INTO Users (UserId, Phone, PasswordHash, UserName, CityId, Role, Email) VALUES (?, ?, ?, ?, ?, ?, NULL)"),
+        EMPLOYERS("INSERT INTO Employers (UserId, CompanyId) VALUES (?, ?)"),
+        JOB_POSTINGS("INSERT INTO JobPostings (JobId, EmployerId, Title, Description, MinSalary, MaxSalary, WorkType, CityId, IsActive, PostDate) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+
+        final String sql;
+
+        Table(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    // Marks the end of the input on the queue
+    static final ImportBatch END = new ImportBatch();
+
+    final List<List<Object[]>> rows = new ArrayList<>();
+    // CSV records this batch covers, including duplicates and skipped ones
+    int records;
+
+    ImportBatch() {
+        for (int i = 0; i < Table.values().length; i++) {
+            rows.add(new ArrayList<>());
+        }
+    }
+
+    void add(Table table, Object... values) {
+        rows.get(table.ordinal()).add(values);
+    }
+
+    int size(Table table) {
+        return rows.get(table.ordinal()).size();
+    }
+}
@@ -0,0 +1,309 @@
+package ingest;
+
+import ingest.ImportBatch.Table;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Builds a proddb database from the Kaggle job_descriptions.csv in one pass, replacing parser.py and
+// populatetables.sh. One thread parses the CSV and resolves ids; the calling thread writes the rows with
+// batched prepared statements. A bounded queue between them keeps memory flat. Secondary indexes are
+// created after the load, and the database is written to a temporary file that replaces --db at the end.
+//
+//   mvn -P ingest compile exec:exec -Dingest.args="--csv=job_descriptions.csv --db=Database/proddb/proddb"
+public class JobDatasetImport {
+    private final String csv;
+    private final String db;
+    private final String schema;
+    private final boolean replace;
+    private final int batchSize;
+    private final int commitRows;
+    private final int queueCapacity;
+    private final long progressIntervalNanos;
+
+    JobDatasetImport(Map<String, String> options) {
+        csv = options.getOrDefault("csv", "job_descriptions.csv");
+        db = options.getOrDefault("db", "Database/proddb/proddb");
+        schema = options.getOrDefault("schema", "Database/proddb/createtables.sql");
+        replace = Boolean.parseBoolean(options.getOrDefault("replace", "false"));
+        batchSize = Integer.parseInt(options.getOrDefault("batch-size", "2000"));
+        commitRows = Integer.parseInt(options.getOrDefault("commit-rows", "200000"));
+        queueCapacity = Integer.parseInt(options.getOrDefault("queue-capacity", "16"));
+        progressIntervalNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("progress-interval-seconds", "5")));
+    }
+
+    public static void main(String[] args) {
+        try {
+            new JobDatasetImport(parseOptions(args)).run();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // --name=value pairs; a bare --name means true
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    void run() throws Exception {
+        File source = new File(csv);
+        if (!source.isFile()) {
+            throw new IOException(csv + " not found. Download it with: " +
+                "kaggle datasets download -d ravindrasinghrana/job-description-dataset --unzip");
+        }
+        File target = new File(db);
+        if (target.exists() && !replace) {
+            throw new IOException(db + " already exists; pass --replace to overwrite it");
+        }
+        File partial = new File(db + ".tmp");
+        partial.delete();
+
+        long start = System.nanoTime();
+        Parser parser = new Parser(source);
+        Totals totals;
+        try {
+            totals = load(partial, parser, start);
+        } catch (Exception e) {
+            partial.delete();
+            throw e;
+        }
+
+        if (target.exists() && !target.delete()) {
+            throw new IOException("Could not remove " + db);
+        }
+        if (!partial.renameTo(target)) {
+            throw new IOException("Could not move " + partial + " to " + db);
+        }
+        double elapsed = seconds(System.nanoTime() - start);
+        System.out.printf("Imported %d jobs from %d records in %.1f s (%.0f records/s); %d duplicate and %d incomplete records skipped%n",
+            totals.jobs, totals.records, elapsed, totals.records / elapsed, parser.mapper.duplicates(), parser.mapper.skipped());
+        System.out.println("Row counts: " + totals.describe());
+    }
+
+    private Totals load(File partial, Parser parser, long start) throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + partial.getPath())) {
+            createSchema(connection);
+            configureForLoad(connection);
+            List<String> indexes = dropIndexes(connection);
+
+            parser.start();
+            Totals totals = write(connection, parser, start);
+            parser.rethrow();
+
+            long indexStart = System.nanoTime();
+            System.out.println("Creating " + indexes.size() + " indexes...");
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : indexes) {
+                    statement.execute(sql);
+                }
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+            System.out.printf("Indexes created in %.1f s%n", seconds(System.nanoTime() - indexStart));
+            return totals;
+        }
+    }
+
+    private Totals write(Connection connection, Parser parser, long start) throws Exception {
+        Totals totals = new Totals();
+        List<PreparedStatement> statements = new ArrayList<>();
+        try {
+            for (Table table : Table.values()) {
+                statements.add(connection.prepareStatement(table.sql));
+            }
+            long uncommitted = 0;
+            long lastReport = System.nanoTime();
+            while (true) {
+                ImportBatch batch = parser.queue.take();
+                if (batch == ImportBatch.END) {
+                    break;
+                }
+                for (Table table : Table.values()) {
+                    List<Object[]> rows = batch.rows.get(table.ordinal());
+                    if (rows.isEmpty()) {
+                        continue;
+                    }
+                    PreparedStatement ps = statements.get(table.ordinal());
+                    for (Object[] row : rows) {
+                        for (int i = 0; i < row.length; i++) {
+                            ps.setObject(i + 1, row[i]);
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    totals.rows[table.ordinal()] += rows.size();
+                    uncommitted += rows.size();
+                }
+                totals.records += batch.records;
+                totals.jobs += batch.size(Table.JOB_POSTINGS);
+                // Few large transactions; the journal is off, so a commit only costs the flush
+                if (uncommitted >= commitRows) {
+                    connection.commit();
+                    uncommitted = 0;
+                }
+                long now = System.nanoTime();
+                if (now - lastReport >= progressIntervalNanos) {
+                    lastReport = now;
+                    double elapsed = seconds(now - start);
+                    System.out.printf("%d records, %d jobs written (%.0f records/s, %d/%d batches queued)%n",
+                        totals.records, totals.jobs, totals.records / elapsed, parser.queue.size(), queueCapacity);
+                }
+            }
+            connection.commit();
+        } finally {
+            for (PreparedStatement statement : statements) {
+                statement.close();
+            }
+        }
+        return totals;
+    }
+
+    private void createSchema(Connection connection) throws IOException, SQLException {
+        String script = new String(Files.readAllBytes(Paths.get(schema)), StandardCharsets.UTF_8);
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : withoutComments.toString().split(";")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        }
+    }
+
+    // The file is only moved into place once complete, so durability during the load buys nothing
+    private static void configureForLoad(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA foreign_keys = OFF");
+            statement.execute("PRAGMA journal_mode = OFF");
+            statement.execute("PRAGMA synchronous = OFF");
+            statement.execute("PRAGMA locking_mode = EXCLUSIVE");
+            statement.execute("PRAGMA temp_store = MEMORY");
+            statement.execute("PRAGMA cache_size = -262144");
+        }
+        connection.setAutoCommit(false);
+    }
+
+    // Drop the schema's secondary indexes and return their definitions; building them once over the full
+    // tables is far cheaper than maintaining them row by row
+    private static List<String> dropIndexes(Connection connection) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT name, sql FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL")) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                    definitions.add(rs.getString(2));
+                }
+            }
+            for (String name : names) {
+                statement.execute("DROP INDEX \"" + name + "\"");
+            }
+        }
+        connection.commit();
+        return definitions;
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+
+    // Reads and maps the CSV on its own thread, handing batches to the writer through a bounded queue
+    private class Parser extends Thread {
+        final BlockingQueue<ImportBatch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final File source;
+        JobDatasetMapper mapper;
+        private volatile Exception failure;
+
+        Parser(File source) {
+            super("csv-parser");
+            // Must not keep the JVM alive if writing fails while this thread waits on a full queue
+            setDaemon(true);
+            this.source = source;
+        }
+
+        @Override
+        public void run() {
+            try (CsvReader reader = new CsvReader(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8))) {
+                String[] header = reader.next();
+                if (header == null) {
+                    throw new IOException(source + " is empty");
+                }
+                mapper = new JobDatasetMapper(header);
+                ImportBatch batch = new ImportBatch();
+                String[] record;
+                while ((record = reader.next()) != null) {
+                    mapper.map(record, batch);
+                    if (batch.records == batchSize) {
+                        queue.put(batch);
+                        batch = new ImportBatch();
+                    }
+                }
+                queue.put(batch);
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                try {
+                    queue.put(ImportBatch.END);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        void rethrow() throws Exception {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static class Totals {
+        final long[] rows = new long[Table.values().length];
+        long records;
+        long jobs;
+
+        String describe() {
+            StringBuilder text = new StringBuilder();
+            for (Table table : Table.values()) {
+                text.append(text.length() == 0 ? "" : ", ").append(table.name()).append('=').append(rows[table.ordinal()]);
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package ingest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ingest.ImportBatch.Table;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Turns job_descriptions.csv records into rows of the proddb schema with the ids parser.py assigned:
+// countries, cities, companies, industries and contacts are numbered in order of first appearance,
+// and a job keeps its row number in the file. Lookups live in in-memory dictionaries.
+class JobDatasetMapper {
+    private static final Pattern SALARY = Pattern.compile("\\$?(\\d+)K?-?\\$?(\\d+)?K?");
+    private static final String[] WORK_TYPES = {"Full-time", "Part-time", "Contract", "Intern"};
+    private static final String NO_INDUSTRY = "";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final int width;
+    private final int salaryRange;
+    private final int location;
+    private final int country;
+    private final int workType;
+    private final int companySize;
+    private final int postDate;
+    private final int contactPerson;
+    private final int contact;
+    private final int role;
+    private final int description;
+    private final int company;
+    private final int companyProfile;
+    // The columns parser.py deduplicated jobs by
+    private final int[] jobColumns;
+
+    private final Map<String, Integer> industries = new HashMap<>();
+    private final Map<String, Integer> countries = new HashMap<>();
+    // Keyed by city name and country id
+    private final Map<String, Integer> cities = new HashMap<>();
+    private final Map<String, Integer> companies = new HashMap<>();
+    private final Map<String, Integer> users = new HashMap<>();
+    // Company profiles repeat for every posting of the company, so each is parsed once
+    private final Map<String, String> industryByProfile = new HashMap<>();
+    // 64-bit FNV-1a hashes of the job columns, and (CompanyId, IndustryId) pairs
+    private final LongSet jobKeys = new LongSet();
+    private final LongSet focusOn = new LongSet();
+
+    private long nextJobId = 1;
+    private long skipped;
+    private long duplicates;
+
+    JobDatasetMapper(String[] header) {
+        width = header.length;
+        salaryRange = column(header, "Salary Range");
+        location = column(header, "location");
+        country = column(header, "Country");
+        workType = column(header, "Work Type");
+        companySize = column(header, "Company Size");
+        postDate = column(header, "Job Posting Date");
+        contactPerson = column(header, "Contact Person");
+        contact = column(header, "Contact");
+        role = column(header, "Role");
+        description = column(header, "Job Description");
+        company = column(header, "Company");
+        companyProfile = column(header, "Company Profile");
+        jobColumns = new int[] {role, description, salaryRange, workType, location, country, postDate, contactPerson, contact, company};
+    }
+
+    long skipped() {
+        return skipped;
+    }
+
+    long duplicates() {
+        return duplicates;
+    }
+
+    // Add the rows the next CSV record introduces to the batch
+    void map(String[] record, ImportBatch batch) {
+        long jobId = nextJobId++;
+        batch.records++;
+        if (record.length < width) {
+            skipped++;
+            return;
+        }
+        String countryName = value(record, country);
+        String cityName = value(record, location);
+        String companyName = value(record, company);
+        String phone = value(record, contact);
+        Matcher salary = SALARY.matcher(record[salaryRange]);
+        if (countryName == null || cityName == null || companyName == null || phone == null || !salary.find()) {
+            skipped++;
+            return;
+        }
+
+        String industry = industryOf(record[companyProfile]);
+        if (industry != null && !industries.containsKey(industry)) {
+            industries.put(industry, industries.size() + 1);
+            batch.add(Table.INDUSTRY, industries.size(), industry);
+        }
+
+        Integer countryId = countries.get(countryName);
+        if (countryId == null) {
+            countryId = countries.size() + 1;
+            countries.put(countryName, countryId);
+            batch.add(Table.COUNTRIES, countryId, countryName);
+        }
+
+        String cityKey = cityName + '\0' + countryId;
+        Integer cityId = cities.get(cityKey);
+        if (cityId == null) {
+            cityId = cities.size() + 1;
+            cities.put(cityKey, cityId);
+            batch.add(Table.CITIES, cityId, cityName, countryId);
+        }
+
+        Integer companyId = companies.get(companyName);
+        if (companyId == null) {
+            companyId = companies.size() + 1;
+            companies.put(companyName, companyId);
+            batch.add(Table.COMPANIES, companyId, companyName, integerOrNull(record[companySize]), cityId);
+        }
+        if (industry != null && focusOn.add(((long) companyId << 32) | industries.get(industry))) {
+            batch.add(Table.FOCUS_ON, companyId, industries.get(industry));
+        }
+
+        Integer userId = users.get(phone);
+        if (userId == null) {
+            userId = users.size() + 1;
+            users.put(phone, userId);
+            batch.add(Table.USERS, userId, phone, "####", record[contactPerson], cityId, "employer");
+            batch.add(Table.EMPLOYERS, userId, companyId);
+        }
+
+        if (!jobKeys.add(jobKey(record))) {
+            duplicates++;
+            return;
+        }
+        double minSalary = Double.parseDouble(salary.group(1));
+        double maxSalary = salary.group(2) != null ? Double.parseDouble(salary.group(2)) : minSalary;
+        String type = record[workType];
+        if (!Arrays.asList(WORK_TYPES).contains(type)) {
+            type = "Full-time";
+        }
+        batch.add(Table.JOB_POSTINGS, jobId, userId, record[role], record[description],
+            minSalary, maxSalary, type, cityId, 1, record[postDate]);
+    }
+
+    // parser.py turned single quotes into double quotes and read the profile as JSON; profiles that do not
+    // parse after that (a name with an apostrophe, say) have no industry
+    private String industryOf(String profile) {
+        String industry = industryByProfile.get(profile);
+        if (industry == null) {
+            industry = NO_INDUSTRY;
+            try {
+                JsonNode node = objectMapper.readTree(profile.replace('\'', '"'));
+                JsonNode value = node != null ? node.get("Industry") : null;
+                if (value != null && value.isTextual() && !value.asText().isEmpty()) {
+                    industry = value.asText();
+                }
+            } catch (Exception e) {
+                // Not JSON after the quote replacement
+            }
+            industryByProfile.put(profile, industry);
+        }
+        return industry.isEmpty() ? null : industry;
+    }
+
+    private long jobKey(String[] record) {
+        long hash = 0xcbf29ce484222325L;
+        for (int column : jobColumns) {
+            String text = record[column];
+            for (int i = 0; i < text.length(); i++) {
+                hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+            }
+            // Separator, so ("ab", "c") and ("a", "bc") differ
+            hash = (hash ^ 0x1F) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String value(String[] record, int column) {
+        String text = record[column];
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Integer integerOrNull(String text) {
+        try {
+            return Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static int column(String[] header, String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Missing column \"" + name + "\" in the CSV header");
+    }
+
+    // Open-addressing set of longs; 0 marks an empty slot and is stored separately
+    private static class LongSet {
+        private long[] keys = new long[1 << 16];
+        private int size;
+        private boolean hasZero;
+
+        boolean add(long key) {
+            if (key == 0) {
+                boolean added = !hasZero;
+                hasZero = true;
+                return added;
+            }
+            int mask = keys.length - 1;
+            int at = (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+            while (keys[at] != 0) {
+                if (keys[at] == key) {
+                    return false;
+                }
+                at = (at + 1) & mask;
+            }
+            keys[at] = key;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return true;
+        }
+
+        private void grow() {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            int mask = keys.length - 1;
+            for (long key : old) {
+                if (key != 0) {
+                    int at = (int) (key ^ (key >>> 32)) * 0x9E3779B9 & mask;
+                    while (keys[at] != 0) {
+                        at = (at + 1) & mask;
+                    }
+                    keys[at] = key;
+                }
+            }
+        }
+    }
+}
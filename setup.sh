@@ -21,12 +21,14 @@ fi
 set -e
 echo "Creating and populating database..."
 cd "$DATDIR"
-rm -f proddb
-python parser.py
-sqlite3 proddb < createtables.sql
-./populatetables.sh
+if [ ! -f job_descriptions.csv ]; then
+    echo "Dataset csv does not exist, try downloading..."
+    kaggle datasets download -d ravindrasinghrana/job-description-dataset --unzip
+fi
 
 cd "$CLASSDIR"
+mvn -q -P ingest compile exec:exec \
+    -Dingest.args="--csv=Database/proddb/job_descriptions.csv --db=Database/proddb/proddb --replace"
 
 # Build and run Spring Boot application
 echo "Building and starting Spring Boot application..."